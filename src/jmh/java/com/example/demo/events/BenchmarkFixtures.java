@@ -0,0 +1,58 @@
+package com.example.demo.events;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.transport.EventPayloadRegistry;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 基准测试共用的事件样本，字段规模参照 DemoController 产生的真实订单事件
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 登记样本用到的负载契约。基准测试不启动 Spring 容器，没有 @EventSchema 扫描，需在 @Setup 中调用；重复调用无副作用
+     */
+    public static void registerSchemas() {
+        EventPayloadRegistry.register("order.created.v1", OrderCreatedPayload.class);
+    }
+
+    /**
+     * 构建一个 OrderCreated 领域事件
+     *
+     * @param attributeCount 扩展属性个数，前几个与线上一致（channel/ip/featureFlag），其余为追踪类字符串
+     * @return OrderCreated 事件
+     */
+    public static BaseDomainEvent<OrderCreatedPayload> orderCreated(int attributeCount) {
+        var payload = new OrderCreatedPayload(UUID.randomUUID().toString(), "user-42", new BigDecimal("1999.90"));
+        return BaseDomainEvent.<OrderCreatedPayload>builder()
+                .type("OrderCreated")
+                .correlationId(UUID.randomUUID().toString())
+                .attributes(attributes(attributeCount))
+                .payload(payload)
+                .build();
+    }
+
+    /**
+     * 构建扩展属性表
+     *
+     * @param count 属性个数
+     * @return 属性表
+     */
+    public static Map<String, Object> attributes(int count) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("channel", "APP");
+        attributes.put("ip", "192.168.0.1");
+        attributes.put("featureFlag", true);
+        for (int i = attributes.size(); i < count; i++) {
+            attributes.put("attr-" + i, "trace-" + UUID.randomUUID());
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.events.aggregation;
+
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.partitioning.EventKeyExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WindowedAggregator 单个事件的计数耗时。
+ * <p>
+ * userCount 控制键的基数，超过 max-keys（100000）时每个新键都伴随一次 LRU 淘汰，耗时应保持同一量级；
+ * 样本事件时间分布在约 65 秒内，覆盖窗格滚动与滑动窗口求和；迟到容忍设为 1 小时，不走迟到丢弃路径。acceptContended 在 8 个线程上并发计数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WindowedAggregatorBenchmark {
+
+    private static final int EVENT_COUNT = 1 << 16;
+
+    @Param({"1000", "100000", "1000000"})
+    private int userCount;
+
+    private WindowedAggregator aggregator;
+    private BaseDomainEvent<?>[] events;
+
+    @Setup
+    public void setUp() {
+        WindowRule<OrderCreatedPayload> rule = new WindowRule<>("bench", "OrderCreated", OrderCreatedPayload.class,
+                event -> event.getPayload().amount().signum() > 0,
+                EventKeyExtractor.payloadProperty(OrderCreatedPayload.class, "userId"),
+                WindowSpec.sliding(Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofHours(1)),
+                5, "Bench");
+        aggregator = new WindowedAggregator(rule, 100_000, 16, Duration.ofMinutes(5));
+        events = new BaseDomainEvent<?>[EVENT_COUNT];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            var payload = new OrderCreatedPayload("order-" + i,
+                    "user-" + ThreadLocalRandom.current().nextInt(userCount), new BigDecimal("1999.90"));
+            events[i] = BaseDomainEvent.<OrderCreatedPayload>builder()
+                    .type("OrderCreated")
+                    .occurredAt(Instant.ofEpochMilli(start + i))
+                    .payload(payload)
+                    .build();
+        }
+    }
+
+    private BaseDomainEvent<?> randomEvent() {
+        return events[ThreadLocalRandom.current().nextInt(EVENT_COUNT)];
+    }
+
+    @Benchmark
+    public WindowAlertPayload accept() {
+        return aggregator.accept(randomEvent());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public WindowAlertPayload acceptContended() {
+        return aggregator.accept(randomEvent());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.events.projection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StripedCounterTable 的查询与累加耗时。
+ * <p>
+ * keyCount 控制表中的键数，查询耗时应与之基本无关；getContended 在 8 个线程上并发查询，
+ * mixed 组在 7 个线程查询的同时由 1 个线程持续累加，乐观读只在同段有写入时才退回读锁。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StripedCounterTableBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int keyCount;
+
+    private StripedCounterTable table;
+    private long[] keys;
+
+    @Setup
+    public void setUp() {
+        table = new StripedCounterTable(16, keyCount);
+        keys = new long[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = StripedCounterTable.key("user-" + i);
+            table.add(keys[i], 1, 100);
+        }
+    }
+
+    private long randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    public StripedCounterTable.Totals get() {
+        return table.get(randomKey());
+    }
+
+    @Benchmark
+    public void add() {
+        table.add(randomKey(), 1, 100);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public StripedCounterTable.Totals getContended() {
+        return table.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public StripedCounterTable.Totals mixedGet() {
+        return table.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedAdd() {
+        table.add(randomKey(), 1, 100);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.events.publisher;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.EventHeaders;
+import com.example.demo.events.routing.DomainEventListener;
+import com.example.demo.events.routing.DomainEventListenerMethodProcessor;
+import com.example.demo.events.routing.DomainEventRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+import org.springframework.core.env.MapPropertySource;
+
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地分发热路径：BaseDomainEvent 的泛型类型解析、Kafka 包装器的额外解析，
+ * Spring 事件多播器按 ResolvableType 匹配 @EventListener 的完整分发开销，
+ * 以及 DomainEventRouter 预计算路由表的分发开销。
+ * 监听器签名与 EnhancedEventListeners 一致，但方法体为空、同步执行，只测匹配与调用本身。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalDispatchBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private LocalEventPublisher springPublisher;
+    private LocalEventPublisher routedPublisher;
+    private BaseDomainEvent<OrderCreatedPayload> event;
+    private Object kafkaWrapped;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        // NoopListeners 以 @EventListener 监听领域事件，需开启 publish-to-spring 才能通过启动检查
+        context.getEnvironment().getPropertySources().addFirst(
+                new MapPropertySource("benchmark", Map.of("app.dispatch.publish-to-spring", true)));
+        context.register(NoopListeners.class, NoopRoutedListeners.class,
+                DomainEventRouter.class, DomainEventListenerMethodProcessor.class);
+        context.refresh();
+        DomainEventRouter router = context.getBean(DomainEventRouter.class);
+        // 只走 Spring 多播器：使用一个空路由器并开启 publish-to-spring
+        springPublisher = new LocalEventPublisher(context, new DomainEventRouter(), true);
+        routedPublisher = new LocalEventPublisher(context, router, false);
+        event = BenchmarkFixtures.orderCreated(3);
+        kafkaWrapped = EventHeaders.markFromKafka(event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResolvableType resolvableType() {
+        return event.getResolvableType();
+    }
+
+    @Benchmark
+    public ResolvableType wrappedResolvableType() {
+        return ((ResolvableTypeProvider) kafkaWrapped).getResolvableType();
+    }
+
+    @Benchmark
+    public void publishViaSpring() {
+        springPublisher.publishEvent(event);
+    }
+
+    @Benchmark
+    public void publishViaSpringFromKafka() {
+        springPublisher.publishEvent(kafkaWrapped);
+    }
+
+    @Benchmark
+    public void publishViaRouter() {
+        routedPublisher.publishEvent(event);
+    }
+
+    @Benchmark
+    public void publishViaRouterFromKafka() {
+        routedPublisher.publishEvent(kafkaWrapped);
+    }
+
+    /**
+     * 与 EnhancedEventListeners 相同签名的空监听器
+     */
+    public static class NoopListeners {
+
+        // 写入 volatile 字段，防止空方法体被 JIT 消除
+        private volatile Object last;
+
+        @EventListener
+        public void onAnyDomainEvent(BaseDomainEvent<?> event) {
+            last = event;
+        }
+
+        @EventListener
+        public void onOrderCreated(BaseDomainEvent<OrderCreatedPayload> event) {
+            last = event;
+        }
+
+        @EventListener
+        public void onHighValueOrder(BaseDomainEvent<OrderCreatedPayload> event) {
+            last = event;
+        }
+    }
+
+    /**
+     * 与 EnhancedEventListeners 相同签名的空监听器，由 DomainEventRouter 分发
+     */
+    public static class NoopRoutedListeners {
+
+        private volatile Object last;
+
+        @DomainEventListener
+        public void onAnyDomainEvent(BaseDomainEvent<?> event) {
+            last = event;
+        }
+
+        @DomainEventListener
+        public void onOrderCreated(BaseDomainEvent<OrderCreatedPayload> event) {
+            last = event;
+        }
+
+        @DomainEventListener
+        public void onHighValueOrder(BaseDomainEvent<OrderCreatedPayload> event) {
+            last = event;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.domain.EventHeaders;
+import com.example.demo.events.publisher.KafkaEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.converter.MessagingMessageConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每条事件在出站与入站各环节的分配量，配合 {@code -prof gc} 查看 gc.alloc.rate.norm（字节/次）。
+ * <p>
+ * outboundViaMessage 复现原来的出站路径：转换为 DomainEventMessage，包装成 Spring Message，
+ * 由 KafkaTemplate 的消息转换器转为 ProducerRecord 后序列化；outboundDirect 为现在的路径：
+ * 领域事件直接作为记录值，序列化器从事件对象写出。
+ * 入站两组只比较映射与来源标记：原来经 builder 构建事件并包装为 WithKafkaSource，现在直接构造并在实例上打标记。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvelopeAllocationBenchmark {
+
+    private static final String TOPIC = "order-events";
+
+    @Param({"JSON", "BINARY"})
+    public EventWireFormat wireFormat;
+
+    @Param({"3", "16"})
+    public int attributeCount;
+
+    private BaseDomainEvent<OrderCreatedPayload> event;
+    private DomainEventMessage inboundMessage;
+    private DomainEventMessageSerializer serializer;
+    private MessagingMessageConverter messageConverter;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.registerSchemas();
+        ObjectMapper objectMapper = EventJson.mapper();
+        event = BenchmarkFixtures.orderCreated(attributeCount);
+        serializer = new DomainEventMessageSerializer(objectMapper, wireFormat);
+        messageConverter = new MessagingMessageConverter();
+        // 入站映射的输入：负载已绑定为本地类型，与流式反序列化器的输出一致
+        inboundMessage = EventMappers.toMessage(event);
+    }
+
+    @Benchmark
+    public byte[] outboundViaMessage() {
+        DomainEventMessage message = EventMappers.toMessage(event);
+        Message<DomainEventMessage> springMessage = MessageBuilder.withPayload(message)
+                .setHeader(KafkaEventPublisher.HEADER_SOURCE, KafkaEventPublisher.SOURCE_APP)
+                .setHeader(KafkaHeaders.TOPIC, TOPIC)
+                .setHeader(KafkaHeaders.KEY, event.getId())
+                .setHeader(EventRecordHeaders.TYPE, EventRecordHeaders.encode(message.type()))
+                .setHeader(EventRecordHeaders.SCHEMA_ID, EventRecordHeaders.encode(message.schemaId()))
+                .setHeader(EventRecordHeaders.ID, EventRecordHeaders.encode(message.id()))
+                .setHeader(EventRecordHeaders.CORRELATION_ID, EventRecordHeaders.encode(message.correlationId()))
+                .build();
+        ProducerRecord<?, ?> record = messageConverter.fromMessage(springMessage, TOPIC);
+        return serializer.serialize(TOPIC, record.headers(), record.value());
+    }
+
+    @Benchmark
+    public byte[] outboundDirect() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaEventPublisher.HEADER_SOURCE, EventRecordHeaders.encode(KafkaEventPublisher.SOURCE_APP));
+        headers.add(EventRecordHeaders.TYPE, EventRecordHeaders.encode(event.getType()));
+        headers.add(EventRecordHeaders.SCHEMA_ID, EventRecordHeaders.encode(EventMappers.schemaIdOf(event)));
+        headers.add(EventRecordHeaders.ID, EventRecordHeaders.encode(event.getId()));
+        headers.add(EventRecordHeaders.CORRELATION_ID, EventRecordHeaders.encode(event.getCorrelationId()));
+        ProducerRecord<String, Object> record = new ProducerRecord<>(TOPIC, null, event.getId(), event, headers);
+        return serializer.serialize(TOPIC, record.headers(), record.value());
+    }
+
+    @Benchmark
+    public Object inboundViaBuilder() {
+        BaseDomainEvent<Object> mapped = BaseDomainEvent.builder()
+                .id(inboundMessage.id())
+                .type(inboundMessage.type())
+                .occurredAt(inboundMessage.occurredAt())
+                .correlationId(inboundMessage.correlationId())
+                .attributes(inboundMessage.attributes())
+                .payload(inboundMessage.payload())
+                .build();
+        return new EventHeaders.WithKafkaSource(mapped);
+    }
+
+    @Benchmark
+    public Object inboundDirect() {
+        return EventHeaders.markFromKafka(EventMappers.toDomainEvent(inboundMessage));
+    }
+}
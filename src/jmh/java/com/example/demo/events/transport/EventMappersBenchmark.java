@@ -0,0 +1,66 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventMappers 出站/入站映射的耗时与分配：
+ * 出站 toMessage；入站分别覆盖负载已是本地类型、负载为 Map（旧 JsonDeserializer 产物）两种输入
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventMappersBenchmark {
+
+    @Param({"3", "16", "64"})
+    public int attributeCount;
+
+    private BaseDomainEvent<?> event;
+    private DomainEventMessage typedMessage;
+    private DomainEventMessage mapMessage;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.registerSchemas();
+        event = BenchmarkFixtures.orderCreated(attributeCount);
+        typedMessage = EventMappers.toMessage(event);
+
+        Map<?, ?> mapPayload = new ObjectMapper().convertValue(typedMessage.payload(), Map.class);
+        mapMessage = new DomainEventMessage(typedMessage.id(), typedMessage.type(), typedMessage.schemaId(),
+                typedMessage.occurredAt(), typedMessage.correlationId(), typedMessage.attributes(), mapPayload);
+    }
+
+    @Benchmark
+    public DomainEventMessage toMessage() {
+        return EventMappers.toMessage(event);
+    }
+
+    @Benchmark
+    public BaseDomainEvent<?> toDomainEventTypedPayload() {
+        return EventMappers.toDomainEvent(typedMessage);
+    }
+
+    @Benchmark
+    public BaseDomainEvent<?> toDomainEventMapPayload() {
+        return EventMappers.toDomainEvent(mapMessage);
+    }
+}
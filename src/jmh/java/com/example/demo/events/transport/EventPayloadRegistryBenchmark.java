@@ -0,0 +1,110 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.example.demo.events.OrderCreatedPayload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventPayloadRegistry 双向查找的耗时，含未注册 schemaId 的查找失败路径。
+ * <p>
+ * schemaCount 控制登记的契约数，查找耗时应与之无关；resolveClassContended 在 8 个线程上并发查找，
+ * churn 组在 7 个线程查找的同时由 1 个线程反复登记、注销契约，读路径不应因快照替换而变慢。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPayloadRegistryBenchmark {
+
+    private static final String CHURN_SCHEMA_ID = "bench.churn.v1";
+
+    @Param({"1", "100", "1000"})
+    private int schemaCount;
+
+    // 非 final 字段，避免 JIT 把查找结果当常量折叠掉
+    private String knownSchemaId = "order.created.v1";
+    private String unknownSchemaId = "order.created.v9";
+    private Class<?> payloadClass = OrderCreatedPayload.class;
+
+    // 只由 churn 组的单个写线程访问
+    private boolean churnRegistered;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.registerSchemas();
+        Map<String, Class<?>> schemas = new LinkedHashMap<>();
+        for (int i = 1; i < schemaCount; i++) {
+            schemas.put("bench.schema-" + i + ".v1", OrderCreatedPayload.class);
+        }
+        EventPayloadRegistry.registerAll(schemas);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int i = 1; i < schemaCount; i++) {
+            EventPayloadRegistry.deregister("bench.schema-" + i + ".v1");
+        }
+        EventPayloadRegistry.deregister(CHURN_SCHEMA_ID);
+    }
+
+    @Benchmark
+    public Class<?> resolveClass() {
+        return EventPayloadRegistry.resolveClass(knownSchemaId);
+    }
+
+    @Benchmark
+    public Class<?> resolveClassMiss() {
+        return EventPayloadRegistry.resolveClass(unknownSchemaId);
+    }
+
+    @Benchmark
+    public String resolveSchemaId() {
+        return EventPayloadRegistry.resolveSchemaId(payloadClass);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Class<?> resolveClassContended() {
+        return EventPayloadRegistry.resolveClass(knownSchemaId);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(7)
+    public Class<?> churnLookup() {
+        return EventPayloadRegistry.resolveClass(knownSchemaId);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean churnRegister() {
+        if (churnRegistered) {
+            EventPayloadRegistry.deregister(CHURN_SCHEMA_ID);
+        } else {
+            EventPayloadRegistry.register(CHURN_SCHEMA_ID, OrderCreatedPayload.class);
+        }
+        churnRegistered = !churnRegistered;
+        return churnRegistered;
+    }
+}
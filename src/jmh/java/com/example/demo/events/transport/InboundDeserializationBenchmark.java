@@ -0,0 +1,68 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 入站反序列化 + 领域事件映射的分配对比：
+ * 原链路（JsonDeserializer 得到 Map 负载，再经 EventMappers 转换）与按 schemaId 流式解析的链路。
+ * 以 -prof gc 的 gc.alloc.rate.norm（每次操作分配字节数）作为主要对比指标。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InboundDeserializationBenchmark {
+
+    private static final String TOPIC = "order-events";
+
+    @Param({"3", "16"})
+    public int attributeCount;
+
+    private byte[] record;
+    private JsonDeserializer<DomainEventMessage> jsonDeserializer;
+    private DomainEventMessageDeserializer streamingDeserializer;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkFixtures.registerSchemas();
+        ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+        var event = BenchmarkFixtures.orderCreated(attributeCount);
+        // 与生产端 JsonSerializer 的输出保持一致
+        record = objectMapper.writeValueAsBytes(EventMappers.toMessage(event));
+
+        jsonDeserializer = new JsonDeserializer<>(DomainEventMessage.class, objectMapper, false);
+        streamingDeserializer = new DomainEventMessageDeserializer(objectMapper);
+    }
+
+    @Benchmark
+    public BaseDomainEvent<?> jsonDeserializerThenMap() {
+        DomainEventMessage message = jsonDeserializer.deserialize(TOPIC, record);
+        return EventMappers.toDomainEvent(message);
+    }
+
+    @Benchmark
+    public BaseDomainEvent<?> streamingDeserializerThenMap() {
+        DomainEventMessage message = streamingDeserializer.deserialize(TOPIC, record);
+        return EventMappers.toDomainEvent(message);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON 与二进制线上格式的对比：编码/解码吞吐与分配。
+ * 编码后体积（含 JsonSerializer 的类型头）在 Setup 中打印到基准输出，便于与吞吐结果一并记录。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String TOPIC = "order-events";
+
+    @Param({"3", "16"})
+    public int attributeCount;
+
+    private DomainEventMessage message;
+    private JsonSerializer<Object> jsonSerializer;
+    private DomainEventMessageSerializer binarySerializer;
+    private DomainEventMessageDeserializer deserializer;
+    private byte[] jsonRecord;
+    private byte[] binaryRecord;
+    private RecordHeaders binaryHeaders;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.registerSchemas();
+        ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+        message = EventMappers.toMessage(BenchmarkFixtures.orderCreated(attributeCount));
+        // 与原生产端配置一致：JsonSerializer + spring.json.add.type.headers=true
+        jsonSerializer = new JsonSerializer<>(objectMapper);
+        binarySerializer = new DomainEventMessageSerializer(objectMapper, EventWireFormat.BINARY);
+        deserializer = new DomainEventMessageDeserializer(objectMapper);
+
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        jsonRecord = jsonSerializer.serialize(TOPIC, jsonHeaders, message);
+        binaryHeaders = new RecordHeaders();
+        binaryRecord = binarySerializer.serialize(TOPIC, binaryHeaders, message);
+
+        System.out.printf("%n[size] attributes=%d json=%d bytes (+%d header bytes), binary=%d bytes (+%d header bytes)%n",
+                attributeCount, jsonRecord.length, headerBytes(jsonHeaders),
+                binaryRecord.length, headerBytes(binaryHeaders));
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), message);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), message);
+    }
+
+    @Benchmark
+    public DomainEventMessage decodeJson() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(), jsonRecord);
+    }
+
+    @Benchmark
+    public DomainEventMessage decodeBinary() {
+        return deserializer.deserialize(TOPIC, binaryHeaders, binaryRecord);
+    }
+
+    private static int headerBytes(RecordHeaders headers) {
+        int size = 0;
+        for (var header : headers) {
+            size += header.key().length() + (header.value() != null ? header.value().length : 0);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.events.versioning;
+
+import com.example.demo.events.BenchmarkFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderCreated 负载版本迁移的耗时与分配。
+ * 迁移步骤会原地修改树结构，因此以 v1→v2→v1 往返为一次操作，保证每次输入一致。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventVersionConversionBenchmark {
+
+    private EventVersionManager eventVersionManager;
+    private EventVersionConverter upgrade;
+    private EventVersionConverter downgrade;
+    private JsonNode payload;
+
+    @Setup
+    public void setUp() {
+        eventVersionManager = new EventVersionManager();
+        new OrderCreatedEventVersionConverter().registerTo(eventVersionManager);
+        upgrade = eventVersionManager.resolveMigration("OrderCreated", "v1", "v2");
+        downgrade = eventVersionManager.resolveMigration("OrderCreated", "v2", "v1");
+        payload = new ObjectMapper().valueToTree(BenchmarkFixtures.orderCreated(3).getPayload());
+    }
+
+    @Benchmark
+    public JsonNode compiledChainRoundTrip() {
+        return downgrade.convert(upgrade.convert(payload));
+    }
+
+    @Benchmark
+    public JsonNode managerRoundTrip() {
+        JsonNode v2 = eventVersionManager.convertEventVersion("OrderCreated", "v1", "v2", payload);
+        return eventVersionManager.convertEventVersion("OrderCreated", "v2", "v1", v2);
+    }
+
+    @Benchmark
+    public EventVersionConverter resolveCachedMigration() {
+        return eventVersionManager.resolveMigration("OrderCreated", "v2", "v1");
+    }
+}
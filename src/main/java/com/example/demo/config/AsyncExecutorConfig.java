@@ -1,23 +1,69 @@
-// AsyncExecutorConfig.java（可选：自定义异步线程池）
+// AsyncExecutorConfig.java（事件异步执行器与监听器并发上限）
 package com.example.demo.config;
 
+import com.example.demo.events.execution.BoundedEventExecutor;
+import com.example.demo.events.execution.KafkaListenerBackpressure;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
 import java.util.concurrent.Executor;
 
 @Configuration
 public class AsyncExecutorConfig {
 
+    public static final String ANY_EVENT_LISTENER_EXECUTOR = "anyEventListenerExecutor";
+    public static final String ORDER_CREATED_LISTENER_EXECUTOR = "orderCreatedListenerExecutor";
+    public static final String HIGH_VALUE_ORDER_LISTENER_EXECUTOR = "highValueOrderListenerExecutor";
+
+    /**
+     * 事件执行器：虚拟线程或平台线程池，排队与执行中的任务总数受 capacity 约束，
+     * 越过高水位时暂停 Kafka 监听容器，达到容量上限时提交线程最多等待 admit-timeout，超时拒绝
+     */
     @Bean("eventExecutor")
-    public Executor eventExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(200);
-        executor.setThreadNamePrefix("event-");
-        executor.initialize();
-        return executor;
+    public BoundedEventExecutor eventExecutor(KafkaListenerBackpressure backpressure,
+                                              @Value("${app.executor.mode:virtual}") String mode,
+                                              @Value("${app.executor.pool-size:8}") int poolSize,
+                                              @Value("${app.executor.capacity:5000}") int capacity,
+                                              @Value("${app.executor.high-water-mark:2000}") int highWaterMark,
+                                              @Value("${app.executor.low-water-mark:500}") int lowWaterMark,
+                                              @Value("${app.executor.admit-timeout:10s}") Duration admitTimeout) {
+        if ("platform".equalsIgnoreCase(mode)) {
+            return BoundedEventExecutor.platformThreads("event-", poolSize, capacity,
+                    highWaterMark, lowWaterMark, admitTimeout, backpressure);
+        }
+        return BoundedEventExecutor.virtualThreads("event-", capacity, highWaterMark, lowWaterMark, admitTimeout,
+                backpressure);
+    }
+
+    /**
+     * 事件执行器队列深度指标：排队与执行中的任务数
+     */
+    @Bean
+    public MeterBinder eventExecutorMetrics(BoundedEventExecutor eventExecutor) {
+        return registry -> Gauge.builder("domain.events.executor.pending", eventExecutor, BoundedEventExecutor::pending)
+                .description("事件执行器中排队与执行中的任务数")
+                .register(registry);
+    }
+
+    @Bean(ANY_EVENT_LISTENER_EXECUTOR)
+    public Executor anyEventListenerExecutor(BoundedEventExecutor eventExecutor,
+                                             @Value("${app.executor.listener-limits.any-event:4}") int limit) {
+        return eventExecutor.limited("any-event", limit);
+    }
+
+    @Bean(ORDER_CREATED_LISTENER_EXECUTOR)
+    public Executor orderCreatedListenerExecutor(BoundedEventExecutor eventExecutor,
+                                                 @Value("${app.executor.listener-limits.order-created:8}") int limit) {
+        return eventExecutor.limited("order-created", limit);
+    }
+
+    @Bean(HIGH_VALUE_ORDER_LISTENER_EXECUTOR)
+    public Executor highValueOrderListenerExecutor(BoundedEventExecutor eventExecutor,
+                                                   @Value("${app.executor.listener-limits.high-value-order:2}") int limit) {
+        return eventExecutor.limited("high-value-order", limit);
     }
 }
@@ -0,0 +1,154 @@
+package com.example.demo.config;
+
+import com.example.demo.events.consumer.ListenerRecordFilter;
+import com.example.demo.events.retry.InboundRetryConfiguration;
+import com.example.demo.events.transport.InboundRecordFilter;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Kafka 消费端监听容器配置。
+ * 默认的逐条（record）模式沿用 Spring Boot 自动配置的容器工厂，这里只补充其他消费模式所需的工厂。
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    public static final String BATCH_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+    public static final String ORDERED_PARALLEL_CONTAINER_FACTORY = "orderedParallelKafkaListenerContainerFactory";
+
+    /**
+     * 把按监听器集合的记录过滤器交给消费者的值反序列化器（经 ErrorHandlingDeserializer 透传给委托），
+     * 没有本地监听器的记录与本实例发出的记录不解析消息体
+     *
+     * @param recordFilter 按监听器集合与记录来源的记录过滤器
+     * @return 消费者工厂定制器
+     */
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer inboundRecordFilterCustomizer(ListenerRecordFilter recordFilter) {
+        return factory -> {
+            if (recordFilter.isEnabled()) {
+                factory.updateConfigs(Map.of(InboundRecordFilter.CONFIG, recordFilter));
+            }
+        };
+    }
+
+    /**
+     * 批量消费容器工厂：一次 poll 的记录整体交给监听器，整批处理完成后只提交一次位点。
+     * 监听器以 BatchListenerFailedException 指出失败的记录，错误处理器提交其之前的位点，
+     * 原地重试该记录，耗尽后转发到死信主题
+     *
+     * @param configurer      Spring Boot 的容器工厂配置器，继承 spring.kafka.listener.* 配置
+     * @param consumerFactory Spring Boot 自动配置的消费者工厂
+     * @param kafkaTemplate   转发死信使用的模板
+     * @param topic           主题，死信主题为 {@code <topic>-dlt}
+     * @param maxSize         单批最大记录数（max.poll.records）
+     * @param maxWait         Broker 凑批的最长等待时间（fetch.max.wait.ms）
+     * @param minBytes        Broker 凑批的最小字节数（fetch.min.bytes），达到即返回
+     * @param attempts        失败记录含首次在内的总尝试次数
+     * @param backoff         两次尝试之间的等待
+     * @return 批量模式的容器工厂
+     */
+    @Bean(BATCH_CONTAINER_FACTORY)
+    @ConditionalOnProperty(prefix = "app.consumer", name = "mode", havingValue = "batch")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            @Value("${app.topics.order-events}") String topic,
+            @Value("${app.consumer.batch.max-size:500}") int maxSize,
+            @Value("${app.consumer.batch.max-wait:500ms}") Duration maxWait,
+            @Value("${app.consumer.batch.min-bytes:16384}") int minBytes,
+            @Value("${app.consumer.batch.attempts:3}") int attempts,
+            @Value("${app.consumer.batch.backoff:1s}") Duration backoff) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("app.consumer.batch.attempts must be >= 1");
+        }
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+
+        // 反序列化失败（DeserializationException）默认不重试，直接转发；其余异常重试 attempts - 1 次
+        String deadLetterTopic = topic + InboundRetryConfiguration.DLT_SUFFIX;
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (failed, error) -> new TopicPartition(deadLetterTopic, -1));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer,
+                new FixedBackOff(backoff.toMillis(), attempts - 1)));
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        // 整批处理完成后统一提交一次位点，覆盖 spring.kafka.listener.ack-mode 的逐条提交
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // 仅对批量容器生效的消费者参数，不影响其他容器
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxSize));
+        overrides.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(maxWait.toMillis()));
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(minBytes));
+        containerProperties.setKafkaConsumerProperties(overrides);
+        return factory;
+    }
+
+    /**
+     * 按键保序并行消费的容器工厂：记录在监听器之外异步处理、逐条乱序确认，
+     * 容器只提交连续已确认的最低位点；上一批记录全部确认前暂停拉取，单分区在途记录数不超过 maxInFlight
+     *
+     * @param configurer      Spring Boot 的容器工厂配置器，继承 spring.kafka.listener.* 配置
+     * @param consumerFactory Spring Boot 自动配置的消费者工厂
+     * @param maxInFlight     每次 poll 的最大记录数，即单个消费者的最大在途记录数（max.poll.records）
+     * @return 按键保序并行模式的容器工厂
+     */
+    @Bean(ORDERED_PARALLEL_CONTAINER_FACTORY)
+    @ConditionalOnProperty(prefix = "app.consumer", name = "mode", havingValue = "ordered-parallel")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderedParallelKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${app.consumer.ordered-parallel.max-in-flight:500}") int maxInFlight) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(false);
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        // 允许乱序确认，容器推迟提交直到缺口补齐
+        containerProperties.setAsyncAcks(true);
+        // 被记录过滤策略丢弃的记录不会到达监听器，由适配器代为确认，否则位点停在缺口处
+        factory.setAckDiscarded(true);
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxInFlight));
+        containerProperties.setKafkaConsumerProperties(overrides);
+        return factory;
+    }
+
+    /**
+     * 批量与按键保序并行模式的死信主题，由 KafkaAdmin 在启动时创建（已存在时不变），分区数与副本数取 Broker 默认；
+     * 逐条模式的死信主题由重试主题配置创建
+     *
+     * @param topic 主题
+     * @return 死信主题定义
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.consumer.mode:record}' != 'record'")
+    public NewTopic inboundDeadLetterTopic(@Value("${app.topics.order-events}") String topic) {
+        return TopicBuilder.name(topic + InboundRetryConfiguration.DLT_SUFFIX).build();
+    }
+}
@@ -1,6 +1,8 @@
 // Business DTO 示例：OrderCreatedPayload.java
 package com.example.demo.events;
 
+import com.example.demo.events.transport.EventSchema;
+
 import java.math.BigDecimal;
 
 /**
@@ -10,6 +12,7 @@ import java.math.BigDecimal;
  * @param userId
  * @param amount
  */
+@EventSchema("order.created.v1")
 public record OrderCreatedPayload(
         String orderId,
         String userId,
@@ -0,0 +1,56 @@
+package com.example.demo.events.aggregation;
+
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.consumer.HighValueOrderCondition;
+import com.example.demo.events.partitioning.EventKeyExtractor;
+import com.example.demo.events.publisher.LocalEventPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 窗口聚合配置：在此登记窗口规则，{@code app.aggregation.enabled=false} 时关闭
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.aggregation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AggregationConfiguration {
+
+    /**
+     * 高价值订单突增的派生事件类型
+     */
+    public static final String HIGH_VALUE_ORDER_BURST = "HighValueOrderBurst";
+
+    /**
+     * 高价值订单突增规则：同一用户在一个窗口内的高价值订单（金额大于 1000）超过阈值
+     */
+    @Bean
+    public WindowedAggregator highValueOrderBurstAggregator(
+            @Value("${app.aggregation.high-value-orders.window:60s}") Duration window,
+            @Value("${app.aggregation.high-value-orders.slide:10s}") Duration slide,
+            @Value("${app.aggregation.high-value-orders.threshold:5}") long threshold,
+            @Value("${app.aggregation.allowed-lateness:5s}") Duration allowedLateness,
+            @Value("${app.aggregation.max-keys:100000}") int maxKeys,
+            @Value("${app.aggregation.stripes:16}") int stripes,
+            @Value("${app.aggregation.max-future-skew:30s}") Duration maxFutureSkew) {
+        WindowRule<OrderCreatedPayload> rule = new WindowRule<>("high-value-order-burst", "OrderCreated",
+                OrderCreatedPayload.class, new HighValueOrderCondition(),
+                EventKeyExtractor.payloadProperty(OrderCreatedPayload.class, "userId"),
+                new WindowSpec(window, slide, allowedLateness), threshold, HIGH_VALUE_ORDER_BURST);
+        return new WindowedAggregator(rule, maxKeys, stripes, maxFutureSkew);
+    }
+
+    /**
+     * 窗口聚合阶段Bean
+     */
+    @Bean
+    public WindowedAggregationStage windowedAggregationStage(List<WindowedAggregator> aggregators,
+                                                             LocalEventPublisher localEventPublisher,
+                                                             MeterRegistry meterRegistry) {
+        return new WindowedAggregationStage(aggregators, localEventPublisher, meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.events.aggregation;
+
+import java.time.Instant;
+
+/**
+ * 窗口规则触发时发出的派生事件负载
+ *
+ * @param rule        规则名称
+ * @param key         分组键
+ * @param windowStart 窗口起点（含）
+ * @param windowEnd   窗口终点（不含）
+ * @param count       触发时窗口内的事件数
+ */
+public record WindowAlertPayload(String rule, String key, Instant windowStart, Instant windowEnd, long count) {
+}
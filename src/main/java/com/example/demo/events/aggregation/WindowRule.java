@@ -0,0 +1,38 @@
+package com.example.demo.events.aggregation;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.partitioning.EventKeyExtractor;
+import com.example.demo.events.routing.EventCondition;
+
+/**
+ * 窗口计数规则：同一个键在一个窗口内满足条件的事件数超过阈值时，发出一个派生事件。
+ *
+ * @param name         规则名称，用作指标标签
+ * @param eventType    输入事件类型（BaseDomainEvent#type）
+ * @param payloadClass 输入负载类型，负载不是该类型的事件不参与计数
+ * @param condition    计数前的过滤条件
+ * @param key          分组键，通常为 {@link EventKeyExtractor#payloadProperty} 取出的负载属性
+ * @param window       窗口定义
+ * @param threshold    窗口内事件数超过该值时触发
+ * @param derivedType  派生事件类型，负载为 {@link WindowAlertPayload}
+ * @param <T>          输入负载类型
+ */
+public record WindowRule<T>(String name,
+                            String eventType,
+                            Class<T> payloadClass,
+                            EventCondition<T> condition,
+                            EventKeyExtractor key,
+                            WindowSpec window,
+                            long threshold,
+                            String derivedType) {
+
+    /**
+     * @param event 领域事件，类型已与 {@link #eventType} 匹配
+     * @return 是否计入窗口
+     */
+    @SuppressWarnings("unchecked")
+    boolean matches(BaseDomainEvent<?> event) {
+        return payloadClass.isAssignableFrom(event.payloadType())
+                && condition.matches((BaseDomainEvent<T>) event);
+    }
+}
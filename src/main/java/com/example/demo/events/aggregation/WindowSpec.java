@@ -0,0 +1,51 @@
+package com.example.demo.events.aggregation;
+
+import java.time.Duration;
+
+/**
+ * 事件时间窗口定义：窗口长度为 size，每隔 slide 开始一个新窗口；slide 等于 size 时为滚动窗口。
+ * <p>
+ * 时间轴按 slide 切成窗格，每个窗口由 size / slide 个相邻窗格组成，因此 size 必须是 slide 的整数倍。
+ *
+ * @param size            窗口长度
+ * @param slide           滑动步长
+ * @param allowedLateness 事件时间落后于已见最大事件时间的容忍量，超出即视为迟到
+ */
+public record WindowSpec(Duration size, Duration slide, Duration allowedLateness) {
+
+    public WindowSpec {
+        if (size.toMillis() <= 0 || slide.toMillis() <= 0 || size.toMillis() % slide.toMillis() != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of slide: size="
+                    + size + ", slide=" + slide);
+        }
+        if (allowedLateness.isNegative()) {
+            throw new IllegalArgumentException("allowedLateness must be >= 0: " + allowedLateness);
+        }
+    }
+
+    /**
+     * @param size            窗口长度
+     * @param allowedLateness 迟到容忍量
+     * @return 滚动窗口
+     */
+    public static WindowSpec tumbling(Duration size, Duration allowedLateness) {
+        return new WindowSpec(size, size, allowedLateness);
+    }
+
+    /**
+     * @param size            窗口长度
+     * @param slide           滑动步长
+     * @param allowedLateness 迟到容忍量
+     * @return 滑动窗口
+     */
+    public static WindowSpec sliding(Duration size, Duration slide, Duration allowedLateness) {
+        return new WindowSpec(size, slide, allowedLateness);
+    }
+
+    /**
+     * @return 每个窗口包含的窗格数
+     */
+    public int panes() {
+        return (int) (size.toMillis() / slide.toMillis());
+    }
+}
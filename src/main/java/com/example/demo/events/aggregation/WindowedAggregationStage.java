@@ -0,0 +1,112 @@
+package com.example.demo.events.aggregation;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.publisher.LocalEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 窗口聚合阶段：领域事件在本地分发之后按事件类型交给各条窗口规则计数，规则触发时经
+ * {@link LocalEventPublisher} 发布派生事件，由 {@code @DomainEventListener(types = 派生类型)} 接收。
+ * <p>
+ * 入站事件在 {@code InboundEventDispatcher} 中、本实例发布的事件在 {@code EventPublishingService} 中进入本阶段，
+ * 两者合起来即该服务看到的完整事件流（本实例发出的记录经 Kafka 回来时已被来源过滤跳过，不会重复计数）。
+ * 派生事件只在本地发布，不发送到 Kafka。规则计算或派生事件的分发失败只记录日志，不影响原事件的分发与位点提交。
+ */
+public class WindowedAggregationStage {
+
+    private static final Logger log = LoggerFactory.getLogger(WindowedAggregationStage.class);
+
+    private final LocalEventPublisher localEventPublisher;
+    private final Map<String, List<RuleBinding>> bindingsByType = new HashMap<>();
+
+    public WindowedAggregationStage(List<WindowedAggregator> aggregators,
+                                    LocalEventPublisher localEventPublisher,
+                                    MeterRegistry meterRegistry) {
+        this.localEventPublisher = localEventPublisher;
+        for (WindowedAggregator aggregator : aggregators) {
+            String rule = aggregator.rule().name();
+            Counter emitted = Counter.builder("domain.events.window.emitted")
+                    .description("窗口规则触发的派生事件数")
+                    .tag("rule", rule)
+                    .register(meterRegistry);
+            FunctionCounter.builder("domain.events.window.late", aggregator, WindowedAggregator::late)
+                    .description("事件时间早于水位而丢弃的事件数")
+                    .tag("rule", rule)
+                    .register(meterRegistry);
+            FunctionCounter.builder("domain.events.window.future", aggregator, WindowedAggregator::future)
+                    .description("事件时间超前本机时间过多而丢弃的事件数")
+                    .tag("rule", rule)
+                    .register(meterRegistry);
+            FunctionCounter.builder("domain.events.window.evictions", aggregator, WindowedAggregator::evictions)
+                    .description("因容量不足淘汰的键数")
+                    .tag("rule", rule)
+                    .register(meterRegistry);
+            Gauge.builder("domain.events.window.keys", aggregator, WindowedAggregator::keys)
+                    .tag("rule", rule)
+                    .register(meterRegistry);
+            bindingsByType.computeIfAbsent(aggregator.rule().eventType(), type -> new ArrayList<>())
+                    .add(new RuleBinding(aggregator, emitted));
+        }
+    }
+
+    private record RuleBinding(WindowedAggregator aggregator, Counter emitted) {
+    }
+
+    /**
+     * @return 已登记规则的输入事件类型，入站记录过滤据此保留没有监听器但需要计数的记录
+     */
+    public Set<String> eventTypes() {
+        return Set.copyOf(bindingsByType.keySet());
+    }
+
+    /**
+     * 把一个已分发的领域事件交给匹配其类型的规则
+     *
+     * @param event 领域事件
+     */
+    public void process(BaseDomainEvent<?> event) {
+        List<RuleBinding> bindings = bindingsByType.get(event.getType());
+        if (bindings == null) {
+            return;
+        }
+        for (RuleBinding binding : bindings) {
+            WindowRule<?> rule = binding.aggregator().rule();
+            try {
+                WindowAlertPayload alert = binding.aggregator().accept(event);
+                if (alert != null) {
+                    binding.emitted().increment();
+                    localEventPublisher.publishEvent(BaseDomainEvent.<WindowAlertPayload>builder()
+                            .type(rule.derivedType())
+                            .occurredAt(event.getOccurredAt())
+                            .correlationId(event.getCorrelationId())
+                            .payload(alert)
+                            .build());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Window rule {} failed on event: id={}", rule.name(), event.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 依次处理一批已分发的领域事件
+     *
+     * @param events 领域事件
+     */
+    public void processAll(List<BaseDomainEvent<?>> events) {
+        for (BaseDomainEvent<?> event : events) {
+            process(event);
+        }
+    }
+}
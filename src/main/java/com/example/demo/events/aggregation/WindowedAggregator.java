@@ -0,0 +1,255 @@
+package com.example.demo.events.aggregation;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单条 {@link WindowRule} 的窗口状态与计算。
+ * <p>
+ * 事件时间取 occurredAt，按 slide 落入窗格；每个键只保存最近 size / slide 个窗格的计数（环形数组），
+ * 滑动窗口的计数由相邻窗格求和得到，不为每个窗口单独保存状态。
+ * <p>
+ * 水位为已见最大事件时间减去 allowedLateness，事件时间早于水位的事件计为迟到并丢弃；
+ * 最新窗格已落到水位所在窗口之外的键在下次访问时重置。水位在所有分区之间共享，
+ * 分区之间的消费进度差应小于 allowedLateness。
+ * <p>
+ * occurredAt 由生产方给出，不可信：推进水位时事件时间不超过本机当前时间，单个超前或时钟偏快的事件不会把水位推到未来；
+ * 超前本机时间 maxFutureSkew 以上的事件计为超前并丢弃。
+ * <p>
+ * 键状态按段存放在访问有序的 LinkedHashMap 中，总键数超过 maxKeys 时淘汰最久未访问的键，
+ * 内存上限与键的基数无关；被淘汰的键重新出现时从零计数，已触发的窗口可能再次触发。
+ * <p>
+ * 同一个键的窗口触发后，与之重叠的后续窗口不再触发；滚动窗口每个窗口最多触发一次。
+ */
+public class WindowedAggregator {
+
+    private final WindowRule<?> rule;
+    private final long slideMillis;
+    private final int panes;
+    private final long latenessMillis;
+    private final long maxFutureSkewMillis;
+    private final KeyStripe[] stripes;
+    private final int stripeMask;
+    private final AtomicLong maxEventTime = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder late = new LongAdder();
+    private final LongAdder future = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param rule          规则
+     * @param maxKeys       最多保留的键数
+     * @param stripes       分段数，2 的幂
+     * @param maxFutureSkew 事件时间允许超前本机时间的上限
+     */
+    public WindowedAggregator(WindowRule<?> rule, int maxKeys, int stripes, Duration maxFutureSkew) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        }
+        this.rule = rule;
+        this.slideMillis = rule.window().slide().toMillis();
+        this.panes = rule.window().panes();
+        this.latenessMillis = rule.window().allowedLateness().toMillis();
+        this.maxFutureSkewMillis = maxFutureSkew.toMillis();
+        this.stripes = new KeyStripe[stripes];
+        int perStripe = Math.max(1, maxKeys / stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new KeyStripe(perStripe);
+        }
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * @return 规则
+     */
+    public WindowRule<?> rule() {
+        return rule;
+    }
+
+    /**
+     * 把一个事件计入窗口
+     *
+     * @param event 领域事件，类型已与规则匹配
+     * @return 本次触发的窗口；未触发、不满足条件或迟到时返回 null
+     */
+    public WindowAlertPayload accept(BaseDomainEvent<?> event) {
+        if (!rule.matches(event)) {
+            return null;
+        }
+        String key = rule.key().extract(event);
+        if (key == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long eventTime = (event.getOccurredAt() != null) ? event.getOccurredAt().toEpochMilli() : now;
+        if (eventTime - now > maxFutureSkewMillis) {
+            future.increment();
+            return null;
+        }
+        // 水位最多推进到本机当前时间
+        long watermark = maxEventTime.accumulateAndGet(Math.min(eventTime, now), Math::max) - latenessMillis;
+        if (eventTime < watermark) {
+            late.increment();
+            return null;
+        }
+        long pane = Math.floorDiv(eventTime, slideMillis);
+        long watermarkPane = Math.floorDiv(watermark, slideMillis);
+
+        KeyStripe stripe = stripes[spread(key.hashCode()) & stripeMask];
+        synchronized (stripe) {
+            KeyWindows windows = stripe.get(key);
+            if (windows == null) {
+                windows = new KeyWindows(panes);
+                stripe.put(key, windows);
+            } else if (windows.newestPane < watermarkPane - panes) {
+                // 全部窗格都已在水位之前关闭
+                windows.reset();
+            }
+            long firedEnd = windows.add(pane);
+            if (firedEnd == Long.MIN_VALUE) {
+                return null;
+            }
+            long count = windows.sum(firedEnd);
+            return new WindowAlertPayload(rule.name(), key,
+                    Instant.ofEpochMilli((firedEnd - panes + 1) * slideMillis),
+                    Instant.ofEpochMilli((firedEnd + 1) * slideMillis), count);
+        }
+    }
+
+    /**
+     * @return 当前水位（毫秒），尚未收到事件时为 Long.MIN_VALUE
+     */
+    public long watermark() {
+        long max = maxEventTime.get();
+        return (max == Long.MIN_VALUE) ? max : max - latenessMillis;
+    }
+
+    /**
+     * @return 当前保留的键数
+     */
+    public int keys() {
+        int keys = 0;
+        for (KeyStripe stripe : stripes) {
+            synchronized (stripe) {
+                keys += stripe.size();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return 迟到丢弃的事件数
+     */
+    public long late() {
+        return late.sum();
+    }
+
+    /**
+     * @return 事件时间超前本机时间过多而丢弃的事件数
+     */
+    public long future() {
+        return future.sum();
+    }
+
+    /**
+     * @return 因容量不足淘汰的键数
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 一个分段：访问有序、超过容量时淘汰最久未访问的键
+     */
+    private final class KeyStripe extends LinkedHashMap<String, KeyWindows> {
+
+        private final int maxKeys;
+
+        KeyStripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, KeyWindows> eldest) {
+            if (size() > maxKeys) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 一个键最近若干窗格的计数，由所在分段的锁保护
+     */
+    private final class KeyWindows {
+
+        final long[] counts;
+        long newestPane = Long.MIN_VALUE;
+        // 最近一次触发的窗口的最后一个窗格
+        long lastFiredPane = Long.MIN_VALUE;
+
+        KeyWindows(int panes) {
+            this.counts = new long[panes];
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+            newestPane = Long.MIN_VALUE;
+        }
+
+        /**
+         * 计入一个窗格，并检查包含该窗格的窗口
+         *
+         * @return 新触发的窗口的最后一个窗格；未触发时返回 Long.MIN_VALUE
+         */
+        long add(long pane) {
+            if (newestPane == Long.MIN_VALUE || pane - newestPane >= panes) {
+                Arrays.fill(counts, 0);
+                newestPane = pane;
+            } else if (pane > newestPane) {
+                for (long p = newestPane + 1; p <= pane; p++) {
+                    counts[slot(p)] = 0;
+                }
+                newestPane = pane;
+            } else if (pane <= newestPane - panes) {
+                // 窗格已移出环形数组，等同于迟到
+                late.increment();
+                return Long.MIN_VALUE;
+            }
+            counts[slot(pane)]++;
+
+            // 包含该窗格、且最后一个窗格不晚于最新窗格的窗口；更晚结束的窗口计数不会更大
+            for (long end = pane, last = Math.min(pane + panes - 1, newestPane); end <= last; end++) {
+                if (end - panes + 1 > lastFiredPane && sum(end) > rule.threshold()) {
+                    lastFiredPane = end;
+                    return end;
+                }
+            }
+            return Long.MIN_VALUE;
+        }
+
+        long sum(long end) {
+            long sum = 0;
+            for (long p = Math.max(end - panes + 1, newestPane - panes + 1); p <= end; p++) {
+                sum += counts[slot(p)];
+            }
+            return sum;
+        }
+
+        private int slot(long pane) {
+            return (int) Math.floorMod(pane, (long) panes);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.demo.events.consumer;
 
+import com.example.demo.config.AsyncExecutorConfig;
 import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.aggregation.AggregationConfiguration;
+import com.example.demo.events.aggregation.WindowAlertPayload;
 import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.routing.DomainEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
@@ -21,8 +23,7 @@ public class EnhancedEventListeners {
      *
      * @param event 事件对象
      */
-    @Async
-    @EventListener
+    @DomainEventListener(executor = AsyncExecutorConfig.ANY_EVENT_LISTENER_EXECUTOR)
     public void onAnyDomainEvent(BaseDomainEvent<?> event) {
         log.info("[AnyListener] received event: type={}, id={}", event.getType(), event.getId());
     }
@@ -32,8 +33,7 @@ public class EnhancedEventListeners {
      *
      * @param event OrderCreated事件
      */
-    @Async
-    @EventListener
+    @DomainEventListener(executor = AsyncExecutorConfig.ORDER_CREATED_LISTENER_EXECUTOR)
     public void onOrderCreated(BaseDomainEvent<OrderCreatedPayload> event) {
         var payload = event.getPayload();
         log.info("[OrderCreated] orderId={}, userId={}, amount={}",
@@ -41,18 +41,28 @@ public class EnhancedEventListeners {
     }
 
     /**
-     * 监听特定属性的事件
+     * 监听特定属性的事件：高价值订单（金额大于1000）由路由器按条件预先过滤，不满足时不分配任务
      *
      * @param event 事件对象
      */
-    @Async
-    @EventListener
+    @DomainEventListener(condition = HighValueOrderCondition.class,
+            executor = AsyncExecutorConfig.HIGH_VALUE_ORDER_LISTENER_EXECUTOR)
     public void onHighValueOrder(BaseDomainEvent<OrderCreatedPayload> event) {
         var payload = event.getPayload();
-        // 监听高价值订单（金额大于1000）
-        if (payload.amount().compareTo(java.math.BigDecimal.valueOf(1000)) > 0) {
-            log.info("[HighValueOrder] High value order detected: orderId={}, amount={}",
-                    payload.orderId(), payload.amount());
-        }
+        log.info("[HighValueOrder] High value order detected: orderId={}, amount={}",
+                payload.orderId(), payload.amount());
     }
-}
\ No newline at end of file
+
+    /**
+     * 高价值订单突增：同一用户在一个窗口内的高价值订单数超过阈值，由窗口聚合阶段按事件时间计数后发出
+     *
+     * @param event 派生事件
+     */
+    @DomainEventListener(types = AggregationConfiguration.HIGH_VALUE_ORDER_BURST,
+            executor = AsyncExecutorConfig.HIGH_VALUE_ORDER_LISTENER_EXECUTOR)
+    public void onHighValueOrderBurst(BaseDomainEvent<WindowAlertPayload> event) {
+        var alert = event.getPayload();
+        log.warn("[HighValueOrderBurst] userId={}, count={}, window=[{}, {})",
+                alert.key(), alert.count(), alert.windowStart(), alert.windowEnd());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.events.consumer;
+
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.routing.EventCondition;
+
+import java.math.BigDecimal;
+
+/**
+ * 高价值订单条件：订单金额大于 1000
+ */
+public class HighValueOrderCondition implements EventCondition<OrderCreatedPayload> {
+
+    private static final BigDecimal THRESHOLD = BigDecimal.valueOf(1000);
+
+    @Override
+    public boolean matches(BaseDomainEvent<OrderCreatedPayload> event) {
+        var payload = event.getPayload();
+        return payload.amount() != null && payload.amount().compareTo(THRESHOLD) > 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.events.consumer;
+
+import com.example.demo.events.aggregation.WindowedAggregationStage;
+import com.example.demo.events.dedup.InboundDeduplicator;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventBatch;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.domain.EventHeaders;
+import com.example.demo.events.journal.EventJournal;
+import com.example.demo.events.metrics.EventMetrics;
+import com.example.demo.events.metrics.EventMetrics.Source;
+import com.example.demo.events.metrics.EventMetrics.Stage;
+import com.example.demo.events.publisher.LocalEventPublisher;
+import com.example.demo.events.transport.EventMappers;
+import com.example.demo.events.versioning.EventVersionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 入站事件分发：把 Kafka 收到的传输消息映射、版本转换为领域事件并发布到本地。
+ * 各种消费模式的桥接器只负责与监听容器交互（取记录、提交位点），分发逻辑统一在这里。
+ * 启用幂等过滤时，保留期内重复投递的事件在映射之前即被丢弃；分发失败会撤销标记，重投时再次处理。
+ * 启用窗口聚合时，事件分发之后交给 {@link WindowedAggregationStage} 计数。
+ * 启用本地事件日志时，只有分发（及窗口计数）成功的事件才记为 CONSUMED，失败后的重试与重投不会重复记录。
+ */
+@Component
+public class InboundEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(InboundEventDispatcher.class);
+
+    private final LocalEventPublisher localEventPublisher;
+    private final EventVersionManager eventVersionManager;
+    private final EventJournal journal;
+    private final InboundDeduplicator deduplicator;
+    private final EventMetrics metrics;
+    private final WindowedAggregationStage aggregationStage;
+
+    public InboundEventDispatcher(LocalEventPublisher localEventPublisher,
+                                  EventVersionManager eventVersionManager,
+                                  EventMetrics metrics,
+                                  ObjectProvider<EventJournal> journal,
+                                  ObjectProvider<InboundDeduplicator> deduplicator,
+                                  ObjectProvider<WindowedAggregationStage> aggregationStage) {
+        this.localEventPublisher = localEventPublisher;
+        this.eventVersionManager = eventVersionManager;
+        this.metrics = metrics;
+        this.journal = journal.getIfAvailable();
+        this.deduplicator = deduplicator.getIfAvailable();
+        this.aggregationStage = aggregationStage.getIfAvailable();
+    }
+
+    /**
+     * 分发单条入站消息
+     *
+     * @param message 传输消息
+     */
+    public void dispatch(DomainEventMessage message) {
+        if (deduplicator != null && !deduplicator.tryAcquire(message.id())) {
+            return;
+        }
+        try {
+            var domainEvent = toDomainEvent(message);
+            Object wrapped = EventHeaders.markFromKafka(domainEvent);
+            long start = metrics.start();
+            localEventPublisher.publishEvent(wrapped);
+            metrics.record(Stage.DISPATCH, Source.KAFKA, message.type(), message.schemaId(), start);
+            if (aggregationStage != null) {
+                aggregationStage.process(domainEvent);
+            }
+            if (journal != null) {
+                journal.record(message, EventJournal.Direction.CONSUMED);
+            }
+        } catch (RuntimeException e) {
+            if (deduplicator != null) {
+                deduplicator.release(message.id());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 分发一批入站消息：逐条映射、版本转换并发布到本地，之后把成功分发的事件作为一个 {@link DomainEventBatch} 发布一次。
+     * <p>
+     * 第 i 条失败时抛出 {@link BatchListenerFailedException}，index 为该条在 messages 中的位置：此前的消息已分发，
+     * 保留幂等标记并记入日志；该条的标记撤销，之后的消息尚未处理，由容器错误处理器提交此前的位点后从该条重投或转入死信。
+     * {@link DomainEventBatch} 的监听器失败只记录日志，逐条分发已经完成，不因此重投整批。
+     *
+     * @param messages 传输消息，保持分区内原有顺序
+     */
+    public void dispatchBatch(List<DomainEventMessage> messages) {
+        List<DomainEventMessage> dispatched = new ArrayList<>(messages.size());
+        List<BaseDomainEvent<?>> events = new ArrayList<>(messages.size());
+        try {
+            for (int index = 0; index < messages.size(); index++) {
+                DomainEventMessage message = messages.get(index);
+                if (deduplicator != null && !deduplicator.tryAcquire(message.id())) {
+                    continue;
+                }
+                try {
+                    var domainEvent = toDomainEvent(message);
+                    long start = metrics.start();
+                    localEventPublisher.publishEvent(EventHeaders.markFromKafka(domainEvent));
+                    metrics.record(Stage.DISPATCH, Source.KAFKA, message.type(), message.schemaId(), start);
+                    if (aggregationStage != null) {
+                        aggregationStage.process(domainEvent);
+                    }
+                    dispatched.add(message);
+                    events.add(domainEvent);
+                } catch (RuntimeException e) {
+                    if (deduplicator != null) {
+                        deduplicator.release(message.id());
+                    }
+                    throw new BatchListenerFailedException("Failed to dispatch event " + message.id(), e, index);
+                }
+            }
+        } finally {
+            if (journal != null && !dispatched.isEmpty()) {
+                journal.recordAll(dispatched, EventJournal.Direction.CONSUMED);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            localEventPublisher.publishEvent(new DomainEventBatch(events));
+        } catch (RuntimeException e) {
+            log.error("DomainEventBatch listener failed, events were already dispatched: size={}", events.size(), e);
+        }
+    }
+
+    /**
+     * 版本转换与映射，分别计时；同时记录端到端延迟
+     */
+    private BaseDomainEvent<?> toDomainEvent(DomainEventMessage message) {
+        metrics.recordLag(message.type(), message.occurredAt());
+        long start = metrics.start();
+        // 使用事件版本管理器转换事件
+        DomainEventMessage migrated = EventMappers.migrate(message, eventVersionManager);
+        metrics.record(Stage.CONVERT, Source.KAFKA, message.type(), message.schemaId(), start);
+        start = metrics.start();
+        BaseDomainEvent<?> domainEvent = EventMappers.toDomainEvent(migrated);
+        metrics.record(Stage.MAP, Source.KAFKA, migrated.type(), migrated.schemaId(), start);
+        return domainEvent;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.events.consumer;
+
+import com.example.demo.config.KafkaConsumerConfig;
+import com.example.demo.events.domain.DomainEventMessage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量消息接收桥接器（app.consumer.mode=batch），一次处理一个 poll 批次：
+ * 逐条映射与版本转换、发布到本地，整批处理完成后由容器统一提交一次位点。
+ * <p>
+ * 某条记录分发失败或无法反序列化时抛出指向该记录的 {@link BatchListenerFailedException}，
+ * 容器的错误处理器提交它之前的位点，按 {@code app.consumer.batch.attempts} 重试该记录，耗尽后转发到死信主题
+ * {@code <topic>-dlt}，再从下一条继续；已成功分发的记录不会重投。反序列化失败不重试，直接转入死信。
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.consumer", name = "mode", havingValue = "batch")
+public class KafkaEventBatchInboundBridge {
+
+    private final InboundEventDispatcher inboundEventDispatcher;
+
+    public KafkaEventBatchInboundBridge(InboundEventDispatcher inboundEventDispatcher) {
+        this.inboundEventDispatcher = inboundEventDispatcher;
+    }
+
+    @KafkaListener(topics = "${app.topics.order-events}",
+            containerFactory = KafkaConsumerConfig.BATCH_CONTAINER_FACTORY,
+            filter = ListenerRecordFilter.BEAN_NAME,
+            batch = "true")
+    public void onBatch(List<ConsumerRecord<String, DomainEventMessage>> records) {
+        List<ConsumerRecord<String, DomainEventMessage>> accepted = new ArrayList<>(records.size());
+        List<DomainEventMessage> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, DomainEventMessage> record : records) {
+            // ErrorHandlingDeserializer 反序列化失败时 value 为 null：先分发此前的记录，再把该条交给错误处理器转入死信
+            if (record.value() == null) {
+                dispatch(accepted, messages);
+                throw new BatchListenerFailedException("Undeserializable record",
+                        new DeserializationException("Undeserializable record", null, false, null), record);
+            }
+            accepted.add(record);
+            messages.add(record.value());
+        }
+        dispatch(accepted, messages);
+    }
+
+    /**
+     * 分发一段记录；过滤后的列表与原始批次下标不一致，失败位置换成记录本身交给错误处理器
+     */
+    private void dispatch(List<ConsumerRecord<String, DomainEventMessage>> records, List<DomainEventMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            inboundEventDispatcher.dispatchBatch(messages);
+        } catch (BatchListenerFailedException e) {
+            throw new BatchListenerFailedException(e.getMessage(), e.getCause(), records.get(e.getIndex()));
+        }
+    }
+}
@@ -1,34 +1,42 @@
 package com.example.demo.events.consumer;
 
 import com.example.demo.events.domain.DomainEventMessage;
-import com.example.demo.events.domain.EventHeaders;
-import com.example.demo.events.publisher.LocalEventPublisher;
-import com.example.demo.events.transport.EventMappers;
-import com.example.demo.events.versioning.EventVersionManager;
+import com.example.demo.events.retry.InboundRetryMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 /**
- * 消息接收桥接器，用于将Kafka的事件消息重新发布为本地事件
+ * 消息接收桥接器，用于将Kafka的事件消息重新发布为本地事件（app.consumer.mode=record，默认逐条处理）
+ * <p>
+ * 启用非阻塞重试（{@code app.consumer.retry.enabled}）时，同一个监听方法也消费各级重试主题，
+ * 处理失败的记录转入下一级重试主题或死信主题，不阻塞主题分区。
  */
 @Component
+@ConditionalOnProperty(prefix = "app.consumer", name = "mode", havingValue = "record", matchIfMissing = true)
 public class KafkaEventInboundBridge {
 
-    private final LocalEventPublisher localEventPublisher;
-    private final EventVersionManager eventVersionManager;
+    private final InboundEventDispatcher inboundEventDispatcher;
+    private final InboundRetryMetrics retryMetrics;
 
-    public KafkaEventInboundBridge(LocalEventPublisher localEventPublisher,
-                                   EventVersionManager eventVersionManager) {
-        this.localEventPublisher = localEventPublisher;
-        this.eventVersionManager = eventVersionManager;
+    public KafkaEventInboundBridge(InboundEventDispatcher inboundEventDispatcher,
+                                   ObjectProvider<InboundRetryMetrics> retryMetrics) {
+        this.inboundEventDispatcher = inboundEventDispatcher;
+        this.retryMetrics = retryMetrics.getIfAvailable();
     }
 
-    @KafkaListener(topics = "${app.topics.order-events}")
-    public void onMessage(@Payload DomainEventMessage message) {
-        // 使用事件版本管理器转换事件
-        var domainEvent = EventMappers.toDomainEvent(message, eventVersionManager);
-        Object wrapped = EventHeaders.markFromKafka(domainEvent);
-        localEventPublisher.publishEvent(wrapped);
+    @KafkaListener(topics = "${app.topics.order-events}", filter = ListenerRecordFilter.BEAN_NAME)
+    public void onMessage(@Payload DomainEventMessage message, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        if (retryMetrics == null || !retryMetrics.isRetryTopic(topic)) {
+            inboundEventDispatcher.dispatch(message);
+            return;
+        }
+        retryMetrics.attempted(topic);
+        inboundEventDispatcher.dispatch(message);
+        retryMetrics.recovered(topic);
     }
 }
@@ -0,0 +1,171 @@
+package com.example.demo.events.consumer;
+
+import com.example.demo.config.KafkaConsumerConfig;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.retry.InboundRetryConfiguration;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 按键保序并行的消息接收桥接器（app.consumer.mode=ordered-parallel）。
+ * <p>
+ * 同一分区的记录按保序键（记录 key，缺省为 correlationId，再缺省为事件 id）分派到虚拟线程上执行：
+ * 同键事件（如同一订单）保持顺序，不同键并行，慢监听器不再阻塞整个分区。
+ * 每条记录处理完成后单独确认，容器开启乱序确认（asyncAcks），只把位点提交到连续完成的最低位点，
+ * 未完成的记录在重启或再均衡后会重新投递。
+ * <p>
+ * 分发失败时在同一个虚拟线程上按 {@code app.consumer.ordered-parallel.attempts} 重试（同键后续事件随之等待，顺序不变），
+ * 仍失败则转发到死信主题 {@code <topic>-dlt}，确认送达后再确认原记录。死信发送同样按 attempts / backoff 重试，
+ * 仍失败时不确认该记录，并让消费线程把分区回退（seek）到该位点重新投递，避免乱序确认下位点永久停在缺口处；
+ * 回退会重投该分区中此后的记录（由入站幂等过滤），失败记录的同键后续事件可能先于它的重投被处理。
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.consumer", name = "mode", havingValue = "ordered-parallel")
+public class KafkaEventOrderedParallelBridge extends AbstractConsumerSeekAware implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaEventOrderedParallelBridge.class);
+
+    private final InboundEventDispatcher inboundEventDispatcher;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final int attempts;
+    private final Duration backoff;
+    private final KeyOrderedExecutor keyOrderedExecutor = new KeyOrderedExecutor("event-dispatch-");
+
+    public KafkaEventOrderedParallelBridge(InboundEventDispatcher inboundEventDispatcher,
+                                           KafkaTemplate<String, Object> kafkaTemplate,
+                                           @Value("${app.topics.order-events}") String topic,
+                                           @Value("${app.consumer.ordered-parallel.attempts:3}") int attempts,
+                                           @Value("${app.consumer.ordered-parallel.backoff:1s}") Duration backoff) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("app.consumer.ordered-parallel.attempts must be >= 1");
+        }
+        this.inboundEventDispatcher = inboundEventDispatcher;
+        String deadLetterTopic = topic + InboundRetryConfiguration.DLT_SUFFIX;
+        this.deadLetterRecoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (failed, error) -> new TopicPartition(deadLetterTopic, -1));
+        this.attempts = attempts;
+        this.backoff = backoff;
+    }
+
+    @KafkaListener(topics = "${app.topics.order-events}",
+            containerFactory = KafkaConsumerConfig.ORDERED_PARALLEL_CONTAINER_FACTORY,
+            filter = ListenerRecordFilter.BEAN_NAME)
+    public void onMessage(ConsumerRecord<String, DomainEventMessage> record, Acknowledgment acknowledgment) {
+        DomainEventMessage message = record.value();
+        // ErrorHandlingDeserializer 反序列化失败时 value 为 null，直接确认跳过
+        if (message == null) {
+            log.warn("Skip undeserializable record: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        keyOrderedExecutor.execute(orderingKey(record, message), () -> {
+            if (dispatchWithRetry(record, message)) {
+                // MANUAL 模式下的确认会排队交回消费线程，由容器按连续位点提交
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+
+    /**
+     * 分发并在失败时重试，重试耗尽后转发到死信主题
+     *
+     * @return 记录已处理或已转入死信，可以确认
+     */
+    private boolean dispatchWithRetry(ConsumerRecord<String, DomainEventMessage> record, DomainEventMessage message) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                inboundEventDispatcher.dispatch(message);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt < attempts && sleep(backoff)) {
+                    log.warn("Dispatch failed, retrying ({}/{}): topic={}, partition={}, offset={}",
+                            attempt, attempts, record.topic(), record.partition(), record.offset(), e);
+                    continue;
+                }
+                return deadLetter(record, e);
+            }
+        }
+    }
+
+    /**
+     * 转发到死信主题，发送失败时按 attempts / backoff 重试，仍失败则回退分区位点重新投递
+     *
+     * @return 已送达死信主题，可以确认
+     */
+    private boolean deadLetter(ConsumerRecord<String, DomainEventMessage> record, Exception cause) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                deadLetterRecoverer.accept(record, cause);
+                log.error("Dispatch failed, record sent to dead-letter topic: topic={}, partition={}, offset={}",
+                        record.topic(), record.partition(), record.offset(), cause);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt < attempts && sleep(backoff)) {
+                    log.warn("Dead-letter publish failed, retrying ({}/{}): topic={}, partition={}, offset={}",
+                            attempt, attempts, record.topic(), record.partition(), record.offset(), e);
+                    continue;
+                }
+                e.addSuppressed(cause);
+                log.error("Dispatch and dead-letter both failed, seeking back for redelivery: "
+                        + "topic={}, partition={}, offset={}", record.topic(), record.partition(), record.offset(), e);
+                seekBack(record);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 请求消费线程把分区回退到该记录；分区已被回收时由新的持有者从已提交位点重新投递
+     */
+    private void seekBack(ConsumerRecord<String, DomainEventMessage> record) {
+        List<ConsumerSeekCallback> callbacks =
+                getSeekCallbacksFor(new TopicPartition(record.topic(), record.partition()));
+        if (callbacks == null || callbacks.isEmpty()) {
+            log.warn("Partition no longer assigned, record will be redelivered to its new owner: "
+                    + "topic={}, partition={}, offset={}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+        // 在非消费线程上调用时，seek 排队到消费线程下次 poll 前执行
+        for (ConsumerSeekCallback callback : callbacks) {
+            callback.seek(record.topic(), record.partition(), record.offset());
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String orderingKey(ConsumerRecord<String, DomainEventMessage> record, DomainEventMessage message) {
+        if (record.key() != null) {
+            return record.key();
+        }
+        return message.correlationId() != null ? message.correlationId() : message.id();
+    }
+
+    @Override
+    public void destroy() {
+        keyOrderedExecutor.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.events.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 按键保序的并行执行器：同一个键的任务严格按提交顺序串行执行，不同键的任务在虚拟线程上并行执行。
+ * <p>
+ * 每个键只保留其最后一个任务的 future，新任务接在它之后；链上没有后续任务时自动移除，
+ * 因此状态大小只与正在执行中的键数量相关。
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedExecutor.class);
+
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(String threadNamePrefix) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param key  保序键，相同键的任务按提交顺序执行
+     * @param task 任务；抛出的异常（包括 Error）只记录日志，不会中断同一键上的后续任务
+     */
+    public void execute(String key, Runnable task) {
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                log.error("Ordered task failed: key={}", key, e);
+            }
+        };
+        // 以 handle 接续：即使前一个任务异常完成，后续任务也照常执行
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(guarded, executor)
+                : tail.handleAsync((result, error) -> {
+                    guarded.run();
+                    return null;
+                }, executor));
+        // 在 compute 之外注册清理，避免任务已完成时回调在 compute 内部同步修改映射
+        next.whenComplete((result, error) -> tails.remove(key, next));
+    }
+
+    /**
+     * @return 当前有未完成任务的键数量
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    /**
+     * 停止接收新任务并等待已提交的任务执行完毕
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
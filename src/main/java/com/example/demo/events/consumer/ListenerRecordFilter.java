@@ -0,0 +1,130 @@
+package com.example.demo.events.consumer;
+
+import com.example.demo.events.aggregation.WindowedAggregationStage;
+import com.example.demo.events.routing.DomainEventRouter;
+import com.example.demo.events.transport.EventOrigin;
+import com.example.demo.events.transport.EventPayloadRegistry;
+import com.example.demo.events.transport.EventRecordHeaders;
+import com.example.demo.events.transport.InboundRecordFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按已注册的 @DomainEventListener 集合过滤入站记录。
+ * <p>
+ * 作为 {@link InboundRecordFilter} 交给反序列化器，在解析消息体之前按 {@value EventRecordHeaders#TYPE} /
+ * {@value EventRecordHeaders#SCHEMA_ID} 头判断 {@link DomainEventRouter} 中是否有监听器接收该组合，
+ * 启用窗口聚合时，规则的输入事件类型即使没有监听器也保留，交给 {@link WindowedAggregationStage} 计数；
+ * 作为 {@link RecordFilterStrategy} 挂在各入站 @KafkaListener 上，丢弃被前置过滤的记录，
+ * 以及（反序列化器未启用前置过滤时）按头判断不需要的记录。被丢弃的记录照常提交位点。
+ * <p>
+ * 领域事件同时发布到 Spring 事件机制（{@code app.dispatch.publish-to-spring=true}）时无法判断
+ * {@code @EventListener} 是否关心某个类型，此时不按监听器过滤。
+ * <p>
+ * 本实例发出的记录（{@value EventRecordHeaders#ORIGIN} 头与 {@link EventOrigin} 相同）在发布时已经本地分发过，
+ * {@code app.consumer.skip-self-origin=true} 时同样在反序列化前丢弃，不再映射与二次分发；
+ * 这一项与按监听器过滤相互独立，单独计数。只发往 Kafka、未做本地分发的事件（{@code publishKafkaEvent}）
+ * 发送时不写来源头，照常经 Kafka 回到本实例的监听器。
+ */
+@Component(ListenerRecordFilter.BEAN_NAME)
+public class ListenerRecordFilter implements InboundRecordFilter, RecordFilterStrategy<Object, Object> {
+
+    public static final String BEAN_NAME = "listenerRecordFilter";
+
+    private final DomainEventRouter router;
+    private final Set<String> aggregatedTypes;
+    private final boolean enabled;
+    private final EventOrigin origin;
+    private final Counter filtered;
+    private final Counter selfOrigin;
+    private final DistributionSummary selfOriginBytes;
+
+    public ListenerRecordFilter(DomainEventRouter router,
+                                EventOrigin origin,
+                                @Value("${app.consumer.filter.enabled:true}") boolean enabled,
+                                @Value("${app.consumer.skip-self-origin:true}") boolean skipSelfOrigin,
+                                @Value("${app.dispatch.publish-to-spring:false}") boolean publishToSpring,
+                                ObjectProvider<WindowedAggregationStage> aggregationStage,
+                                MeterRegistry meterRegistry) {
+        this.router = router;
+        WindowedAggregationStage stage = aggregationStage.getIfAvailable();
+        this.aggregatedTypes = (stage != null) ? stage.eventTypes() : Set.of();
+        this.enabled = enabled && !publishToSpring;
+        this.origin = skipSelfOrigin ? origin : null;
+        this.filtered = Counter.builder("domain.events.inbound.filtered")
+                .description("没有本地监听器、在分发前被丢弃的入站记录数")
+                .register(meterRegistry);
+        this.selfOrigin = Counter.builder("domain.events.inbound.self-origin")
+                .description("本实例发出、未重复映射与分发的入站记录数")
+                .register(meterRegistry);
+        this.selfOriginBytes = DistributionSummary.builder("domain.events.inbound.self-origin.bytes")
+                .description("本实例发出的入站记录中未反序列化的消息体字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return 是否需要在反序列化前过滤（按监听器过滤或跳过本实例发出的记录，任一启用即需要）
+     */
+    public boolean isEnabled() {
+        return enabled || origin != null;
+    }
+
+    /**
+     * 窗口规则的输入类型总是保留；其余按监听器判断，映射后的负载类型按 schemaId 推断：本地直接登记的契约为其负载类型；
+     * 需要版本迁移的契约为迁移目标的负载类型，迁移不可用时退化为 Map，两者任一有监听器即需要
+     */
+    @Override
+    public boolean accepts(String type, String schemaId) {
+        if (!enabled || (type != null && aggregatedTypes.contains(type))) {
+            return true;
+        }
+        Class<?> payloadClass = (schemaId != null) ? EventPayloadRegistry.resolveClass(schemaId) : null;
+        if (payloadClass != null) {
+            return router.hasListeners(type, payloadClass);
+        }
+        String localSchemaId = (schemaId != null) ? EventPayloadRegistry.resolveLocalSchemaId(schemaId) : null;
+        Class<?> migratedClass = (localSchemaId != null) ? EventPayloadRegistry.resolveClass(localSchemaId) : null;
+        return (migratedClass != null && router.hasListeners(type, migratedClass))
+                || router.hasListeners(type, Map.class);
+    }
+
+    /**
+     * 本实例发出的记录先于类型判断被拒绝
+     */
+    @Override
+    public boolean accepts(Headers headers) {
+        if (origin != null && origin.isSelf(headers)) {
+            return false;
+        }
+        return !enabled || InboundRecordFilter.super.accepts(headers);
+    }
+
+    /**
+     * @return true 表示丢弃该记录
+     */
+    @Override
+    public boolean filter(ConsumerRecord<Object, Object> consumerRecord) {
+        Headers headers = consumerRecord.headers();
+        if (origin != null && origin.isSelf(headers)) {
+            selfOrigin.increment();
+            selfOriginBytes.record(Math.max(consumerRecord.serializedValueSize(), 0));
+            return true;
+        }
+        if (EventRecordHeaders.isFiltered(headers) || (enabled && !accepts(headers))) {
+            filtered.increment();
+            return true;
+        }
+        return false;
+    }
+}
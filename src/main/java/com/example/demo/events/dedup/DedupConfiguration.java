@@ -0,0 +1,30 @@
+package com.example.demo.events.dedup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 入站幂等过滤配置，{@code app.dedup.enabled=false} 时关闭
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.dedup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DedupConfiguration {
+
+    /**
+     * 入站幂等过滤Bean
+     */
+    @Bean
+    public InboundDeduplicator inboundDeduplicator(@Value("${app.dedup.max-memory:32MB}") DataSize maxMemory,
+                                                   @Value("${app.dedup.stripes:16}") int stripes,
+                                                   @Value("${app.dedup.retention:1h}") Duration retention,
+                                                   MeterRegistry meterRegistry) {
+        OffHeapDedupIndex index = new OffHeapDedupIndex(maxMemory.toBytes(), stripes, retention.toMillis());
+        return new InboundDeduplicator(index, meterRegistry);
+    }
+}
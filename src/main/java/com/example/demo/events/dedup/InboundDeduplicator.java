@@ -0,0 +1,101 @@
+package com.example.demo.events.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 入站事件幂等过滤：在本地分发前按事件 ID 去重，重平衡或重试导致的重投不会让监听器重复执行副作用。
+ * <p>
+ * UUID 形式的 ID 直接拆成两个 long；其他形式的 ID 取 128 位哈希。ID 为空的事件不参与去重。
+ * 分发失败时调用 {@link #release(String)} 撤销标记，使重投的记录能够再次处理。
+ */
+public class InboundDeduplicator {
+
+    private final OffHeapDedupIndex index;
+    private final Counter hits;
+    private final Counter misses;
+
+    public InboundDeduplicator(OffHeapDedupIndex index, MeterRegistry meterRegistry) {
+        this.index = index;
+        this.hits = Counter.builder("domain.events.dedup")
+                .description("入站事件去重结果")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("domain.events.dedup")
+                .description("入站事件去重结果")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("domain.events.dedup.evictions", index, OffHeapDedupIndex::evictions)
+                .description("因容量不足提前淘汰的未过期条目数")
+                .register(meterRegistry);
+        Gauge.builder("domain.events.dedup.entries", index, OffHeapDedupIndex::size)
+                .register(meterRegistry);
+        Gauge.builder("domain.events.dedup.capacity", index, OffHeapDedupIndex::capacity)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 标记一个入站事件 ID
+     *
+     * @param id 事件 ID
+     * @return 保留期内首次出现（或 ID 为空）时返回 true，应当继续分发；重复时返回 false
+     */
+    public boolean tryAcquire(String id) {
+        if (id == null) {
+            return true;
+        }
+        long[] key = keyOf(id);
+        if (index.markIfAbsent(key[0], key[1], System.currentTimeMillis())) {
+            misses.increment();
+            return true;
+        }
+        hits.increment();
+        return false;
+    }
+
+    /**
+     * 撤销标记，分发失败时调用
+     *
+     * @param id 事件 ID
+     */
+    public void release(String id) {
+        if (id == null) {
+            return;
+        }
+        long[] key = keyOf(id);
+        index.forget(key[0], key[1]);
+    }
+
+    private static long[] keyOf(String id) {
+        if (isCanonicalUuid(id)) {
+            try {
+                UUID uuid = UUID.fromString(id);
+                return new long[]{uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()};
+            } catch (IllegalArgumentException ignored) {
+                // 形似 UUID 但含非十六进制字符，按普通字符串处理
+            }
+        }
+        // 非 UUID 的 ID：两个不同种子的 64 位 FNV-1a 哈希
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        return new long[]{fnv1a(bytes, 0xcbf29ce484222325L), fnv1a(bytes, 0x84222325cbf29ce4L)};
+    }
+
+    private static boolean isCanonicalUuid(String id) {
+        return id.length() == 36 && id.charAt(8) == '-' && id.charAt(13) == '-'
+                && id.charAt(18) == '-' && id.charAt(23) == '-';
+    }
+
+    private static long fnv1a(byte[] bytes, long seed) {
+        long hash = seed;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
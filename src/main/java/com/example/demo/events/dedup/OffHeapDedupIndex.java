@@ -0,0 +1,235 @@
+package com.example.demo.events.dedup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 堆外、有界的事件 ID 去重索引。
+ * <p>
+ * 128 位 ID 拆成两个 long，连同标记时间存放在直接内存中的开放寻址表（线性探测）里，每个槽 24 字节，
+ * 不产生堆上对象，不给 GC 增加压力。表按 ID 哈希分成若干段，每段一把锁，段内容量固定。
+ * <ul>
+ *     <li>超过保留期的条目视为不存在，插入时可以直接复用其槽位；</li>
+ *     <li>段内已用槽位超过负载上限时原地重建：先清掉过期条目，仍然过满则按时间淘汰较旧的一半。</li>
+ * </ul>
+ * 时间为 0 的槽表示空槽，因此写入的时间至少为 1。
+ */
+public final class OffHeapDedupIndex {
+
+    private static final int SLOT_BYTES = 24;
+    private static final double MAX_LOAD = 0.75;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long retentionMillis;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxMemoryBytes  直接内存上限
+     * @param stripes         分段数，向上取整为 2 的幂
+     * @param retentionMillis 条目保留时间
+     */
+    public OffHeapDedupIndex(long maxMemoryBytes, int stripes, long retentionMillis) {
+        int stripeCount = (stripes <= 1) ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        long slotsPerStripe = Long.highestOneBit(Math.max(16, maxMemoryBytes / SLOT_BYTES / stripeCount));
+        if (slotsPerStripe * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dedup stripe too large, increase stripes: " + slotsPerStripe);
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe((int) slotsPerStripe);
+        }
+        this.stripeMask = stripeCount - 1;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * 原子地检查并标记一个 ID
+     *
+     * @param msb ID 高 64 位
+     * @param lsb ID 低 64 位
+     * @param now 当前时间（毫秒）
+     * @return 保留期内首次出现返回 true；重复返回 false
+     */
+    public boolean markIfAbsent(long msb, long lsb, long now) {
+        long hash = mix(msb, lsb);
+        return stripes[(int) (hash >>> 32) & stripeMask].markIfAbsent(msb, lsb, (int) hash, Math.max(1, now));
+    }
+
+    /**
+     * 撤销标记，使该 ID 再次出现时能被处理（用于处理失败后等待重投）
+     *
+     * @param msb ID 高 64 位
+     * @param lsb ID 低 64 位
+     */
+    public void forget(long msb, long lsb) {
+        long hash = mix(msb, lsb);
+        stripes[(int) (hash >>> 32) & stripeMask].forget(msb, lsb, (int) hash);
+    }
+
+    /**
+     * 当前占用的槽位数（含尚未清理的过期条目）
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.used;
+        }
+        return size;
+    }
+
+    /**
+     * 总槽位数
+     */
+    public long capacity() {
+        return (long) stripes.length * stripes[0].slots;
+    }
+
+    /**
+     * 因容量不足被提前淘汰的未过期条目数
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    static long mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ByteBuffer table;
+        private final int slots;
+        private final int mask;
+        private final int maxUsed;
+        // 非空槽位数（含过期与撤销的条目），只在锁内修改
+        private volatile int used;
+
+        Stripe(int slots) {
+            this.slots = slots;
+            this.mask = slots - 1;
+            this.maxUsed = (int) (slots * MAX_LOAD);
+            this.table = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+        }
+
+        boolean markIfAbsent(long msb, long lsb, int hash, long now) {
+            lock.lock();
+            try {
+                long expiredBefore = now - retentionMillis;
+                int reusable = -1;
+                int slot = hash & mask;
+                for (int probes = 0; probes < slots; probes++, slot = (slot + 1) & mask) {
+                    int base = slot * SLOT_BYTES;
+                    long time = table.getLong(base + 16);
+                    if (time == 0) {
+                        break;
+                    }
+                    if (time <= expiredBefore) {
+                        if (reusable < 0) {
+                            reusable = slot;
+                        }
+                        continue;
+                    }
+                    if (table.getLong(base) == msb && table.getLong(base + 8) == lsb) {
+                        return false;
+                    }
+                }
+                if (reusable >= 0) {
+                    write(reusable, msb, lsb, now);
+                    return true;
+                }
+                if (used >= maxUsed) {
+                    rebuild(expiredBefore, now);
+                }
+                insert(msb, lsb, hash, now);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void forget(long msb, long lsb, int hash) {
+            lock.lock();
+            try {
+                int slot = hash & mask;
+                for (int probes = 0; probes < slots; probes++, slot = (slot + 1) & mask) {
+                    int base = slot * SLOT_BYTES;
+                    long time = table.getLong(base + 16);
+                    if (time == 0) {
+                        return;
+                    }
+                    if (table.getLong(base) == msb && table.getLong(base + 8) == lsb) {
+                        // 时间写为 1：视为早已过期，探测链保持连续
+                        table.putLong(base + 16, 1);
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void insert(long msb, long lsb, int hash, long now) {
+            int slot = hash & mask;
+            while (table.getLong(slot * SLOT_BYTES + 16) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            write(slot, msb, lsb, now);
+            used++;
+        }
+
+        private void write(int slot, long msb, long lsb, long now) {
+            int base = slot * SLOT_BYTES;
+            table.putLong(base, msb);
+            table.putLong(base + 8, lsb);
+            table.putLong(base + 16, now);
+        }
+
+        /**
+         * 原地重建：取出未过期条目，仍超过负载上限时丢弃较旧的一半，再清空整段重新插入
+         */
+        private void rebuild(long expiredBefore, long now) {
+            int live = 0;
+            long oldest = Long.MAX_VALUE;
+            long[] entries = new long[used * 3];
+            for (int slot = 0; slot < slots; slot++) {
+                int base = slot * SLOT_BYTES;
+                long time = table.getLong(base + 16);
+                // 保留期长于当前时间时 expiredBefore 为负，空槽也要显式跳过
+                if (time != 0 && time > expiredBefore) {
+                    entries[live * 3] = table.getLong(base);
+                    entries[live * 3 + 1] = table.getLong(base + 8);
+                    entries[live * 3 + 2] = time;
+                    oldest = Math.min(oldest, time);
+                    live++;
+                }
+            }
+            long cutoff = expiredBefore;
+            if (live >= maxUsed / 2) {
+                // 保留期内的条目仍然太多：按时间中点淘汰较旧的一部分
+                cutoff = oldest + (now - oldest) / 2;
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                table.putLong(slot * SLOT_BYTES + 16, 0);
+            }
+            used = 0;
+            for (int i = 0; i < live; i++) {
+                long time = entries[i * 3 + 2];
+                if (time <= cutoff) {
+                    evictions.increment();
+                    continue;
+                }
+                long msb = entries[i * 3];
+                long lsb = entries[i * 3 + 1];
+                insert(msb, lsb, (int) mix(msb, lsb), time);
+            }
+        }
+    }
+}
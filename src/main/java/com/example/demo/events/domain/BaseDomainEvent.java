@@ -4,9 +4,14 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.ResolvableTypeProvider;
 
@@ -16,11 +21,13 @@ import java.util.Map;
 import java.util.UUID;
 
 /**
- * 通用领域事件，可携带任意业务负载与扩展属性
+ * 通用领域事件，可携带任意业务负载与扩展属性。
+ * <p>
+ * 同一个实例贯穿发布与消费的各个环节：出站时由序列化器直接从本对象写出，入站时由映射直接构建，
+ * 来源以 {@link #isFromKafka()} 标记，不再另建包装对象；扩展属性表按引用传递，各环节不拷贝。
  */
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
 @Data
-@Builder
 @NoArgsConstructor
 public class BaseDomainEvent<T> implements Serializable, ResolvableTypeProvider {
     private String id;
@@ -30,6 +37,14 @@ public class BaseDomainEvent<T> implements Serializable, ResolvableTypeProvider
     private Map<String, Object> attributes; // 任意扩展键值
     private T payload; // 业务数据
 
+    // 来源标记，不参与序列化与相等性比较
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile boolean fromKafka;
+
+    @Builder
     @JsonCreator
     public BaseDomainEvent(
             @JsonProperty("id") String id,
@@ -46,6 +61,30 @@ public class BaseDomainEvent<T> implements Serializable, ResolvableTypeProvider
         this.payload = payload;
     }
 
+    /**
+     * @return 事件是否来自 Kafka（消费或回放），来自 Kafka 的事件不再重复发布
+     */
+    @JsonIgnore
+    public boolean isFromKafka() {
+        return fromKafka;
+    }
+
+    /**
+     * 标记事件来自 Kafka，由 {@link EventHeaders#markFromKafka(Object)} 调用
+     */
+    void markFromKafka() {
+        this.fromKafka = true;
+    }
+
+    /**
+     * 负载的运行时类型，用于路由与契约查找；子类可在不解析负载的情况下给出类型
+     *
+     * @return 负载类型，没有负载时返回 Object.class
+     */
+    public Class<?> payloadType() {
+        return (payload != null) ? payload.getClass() : Object.class;
+    }
+
     /**
      * 向 Spring 暴露 BaseDomainEvent<T> 的具体泛型实参，便于按参数化类型匹配监听器
      */
@@ -0,0 +1,24 @@
+package com.example.demo.events.domain;
+
+import java.util.List;
+
+/**
+ * 批量消费模式下，一次 Kafka poll 得到的领域事件集合。
+ * 批内事件仍会逐条发布给普通监听器；需要批量处理（如批量写库）的监听器可直接监听本类型。
+ *
+ * @param events 已完成映射与版本转换的领域事件，保持分区内原有顺序
+ */
+public record DomainEventBatch(List<BaseDomainEvent<?>> events) {
+
+    public DomainEventBatch {
+        events = List.copyOf(events);
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
@@ -4,7 +4,10 @@ import org.springframework.core.ResolvableType;
 import org.springframework.core.ResolvableTypeProvider;
 
 /**
- * 事件包装器，用于区分是否来自Kafka
+ * 事件来源标记，用于区分是否来自Kafka。
+ * <p>
+ * 领域事件直接在实例上打标记（{@link BaseDomainEvent#isFromKafka()}），不分配包装对象；
+ * 其他类型的事件仍包装为 {@link WithKafkaSource}。
  */
 public final class EventHeaders {
     private EventHeaders() {
@@ -12,11 +15,16 @@ public final class EventHeaders {
 
     public static Object markFromKafka(Object event) {
         if (event instanceof WithKafkaSource marker) return marker; // 已标记
+        if (event instanceof BaseDomainEvent<?> domainEvent) {
+            domainEvent.markFromKafka();
+            return domainEvent;
+        }
         return new WithKafkaSource(event);
     }
 
     public static boolean isFromKafka(Object event) {
-        return event instanceof WithKafkaSource;
+        return event instanceof WithKafkaSource
+                || (event instanceof BaseDomainEvent<?> domainEvent && domainEvent.isFromKafka());
     }
 
     public static Object unwrap(Object event) {
@@ -0,0 +1,243 @@
+package com.example.demo.events.execution;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界、带背压的事件执行器。
+ * <p>
+ * 底层可以是虚拟线程（每任务一个线程）或固定大小的平台线程池。排队与执行中的任务总数不超过 capacity：
+ * <ul>
+ *     <li>达到高水位时通知 {@link BackpressureListener}（如暂停 Kafka 监听容器），回落到低水位时再通知恢复；
+ *     水位状态的翻转与回调在同一把锁内完成，暂停与恢复按状态变化的顺序调用；</li>
+ *     <li>达到容量上限时提交线程最多等待 admitTimeout，仍无空位则抛出 {@link RejectedExecutionException}，
+ *     不会无限期阻塞 Kafka 消费线程（超过 max.poll.interval.ms）或请求线程。</li>
+ * </ul>
+ * 通过 {@link #limited(String, int)} 可以为单个监听器划出并发上限，共享同一容量与背压。
+ */
+public class BoundedEventExecutor implements Executor, AutoCloseable {
+
+    /**
+     * 水位变化回调，在触发水位变化的线程上持锁同步调用，应尽快返回
+     */
+    public interface BackpressureListener {
+
+        void onHighWaterMark(int pending);
+
+        void onLowWaterMark(int pending);
+    }
+
+    private final ExecutorService delegate;
+    private final Semaphore capacity;
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    private final long admitTimeoutNanos;
+    private final BackpressureListener backpressureListener;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object waterMarkLock = new Object();
+    // 写入只在 waterMarkLock 内；读取可以不加锁，用于跳过不需要翻转的情况
+    private volatile boolean overHighWaterMark;
+
+    private BoundedEventExecutor(ExecutorService delegate, int capacity, int highWaterMark, int lowWaterMark,
+                                 Duration admitTimeout, BackpressureListener backpressureListener) {
+        if (lowWaterMark >= highWaterMark || highWaterMark > capacity) {
+            throw new IllegalArgumentException("Expected lowWaterMark < highWaterMark <= capacity, got "
+                    + lowWaterMark + " / " + highWaterMark + " / " + capacity);
+        }
+        this.delegate = delegate;
+        this.capacity = new Semaphore(capacity);
+        this.highWaterMark = highWaterMark;
+        this.lowWaterMark = lowWaterMark;
+        this.admitTimeoutNanos = admitTimeout.toNanos();
+        this.backpressureListener = backpressureListener;
+    }
+
+    /**
+     * 基于虚拟线程的执行器，每个任务一个虚拟线程，并发度只受容量约束
+     */
+    public static BoundedEventExecutor virtualThreads(String threadNamePrefix, int capacity, int highWaterMark,
+                                                      int lowWaterMark, Duration admitTimeout,
+                                                      BackpressureListener backpressureListener) {
+        ExecutorService delegate = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        return new BoundedEventExecutor(delegate, capacity, highWaterMark, lowWaterMark, admitTimeout,
+                backpressureListener);
+    }
+
+    /**
+     * 基于固定大小平台线程池的执行器，池内队列不设上限，由容量统一约束
+     */
+    public static BoundedEventExecutor platformThreads(String threadNamePrefix, int poolSize, int capacity,
+                                                       int highWaterMark, int lowWaterMark, Duration admitTimeout,
+                                                       BackpressureListener backpressureListener) {
+        ExecutorService delegate = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), Thread.ofPlatform().name(threadNamePrefix, 0).factory());
+        return new BoundedEventExecutor(delegate, capacity, highWaterMark, lowWaterMark, admitTimeout,
+                backpressureListener);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        admit();
+        submit(task);
+    }
+
+    /**
+     * 划出一个并发上限为 maxConcurrency 的子执行器，超出上限的任务在子执行器内排队，
+     * 但同样计入本执行器的容量与水位
+     *
+     * @param name           子执行器名称，用于诊断
+     * @param maxConcurrency 最大并发数
+     * @return 子执行器
+     */
+    public Executor limited(String name, int maxConcurrency) {
+        return new LimitedExecutor(name, maxConcurrency);
+    }
+
+    /**
+     * @return 排队与执行中的任务总数
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * 占用一个容量名额，容量耗尽时最多等待 admitTimeout
+     *
+     * @throws RejectedExecutionException 等待超时或被中断
+     */
+    private void admit() {
+        try {
+            if (!capacity.tryAcquire(admitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Event executor full: pending=" + pending.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for event executor capacity", e);
+        }
+        int current = pending.incrementAndGet();
+        if (current >= highWaterMark && !overHighWaterMark) {
+            updateWaterMark();
+        }
+    }
+
+    private void release() {
+        int current = pending.decrementAndGet();
+        capacity.release();
+        if (current <= lowWaterMark && overHighWaterMark) {
+            updateWaterMark();
+        }
+    }
+
+    /**
+     * 在锁内按当前积压翻转水位状态并回调。先写状态再读积压：与之并发的 admit/release 先改积压再读状态，
+     * 两者至少有一方看到对方的修改，不会出现已暂停但没有线程负责恢复（或相反）的情况
+     */
+    private void updateWaterMark() {
+        synchronized (waterMarkLock) {
+            if (!overHighWaterMark) {
+                overHighWaterMark = true;
+                int current = pending.get();
+                if (current >= highWaterMark) {
+                    backpressureListener.onHighWaterMark(current);
+                } else {
+                    overHighWaterMark = false;
+                }
+            } else {
+                overHighWaterMark = false;
+                int current = pending.get();
+                if (current <= lowWaterMark) {
+                    backpressureListener.onLowWaterMark(current);
+                } else {
+                    overHighWaterMark = true;
+                }
+            }
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * 限制并发数的子执行器：任务先进入自身队列，执行中的任务数低于上限时才交给底层执行器
+     */
+    private final class LimitedExecutor implements Executor {
+
+        private final String name;
+        private final int maxConcurrency;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger active = new AtomicInteger();
+
+        private LimitedExecutor(String name, int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency of " + name + " must be positive");
+            }
+            this.name = name;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            admit();
+            queue.add(task);
+            drain();
+        }
+
+        private void drain() {
+            while (!queue.isEmpty()) {
+                int current = active.get();
+                if (current >= maxConcurrency) {
+                    return;
+                }
+                if (!active.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable next = queue.poll();
+                if (next == null) {
+                    active.decrementAndGet();
+                    continue;
+                }
+                submit(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        active.decrementAndGet();
+                        drain();
+                    }
+                });
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "LimitedExecutor[" + name + ", maxConcurrency=" + maxConcurrency + "]";
+        }
+    }
+}
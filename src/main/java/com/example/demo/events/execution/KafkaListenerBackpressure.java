@@ -0,0 +1,48 @@
+package com.example.demo.events.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地事件执行器的背压出口：积压越过高水位时暂停所有 Kafka 监听容器，回落到低水位后恢复。
+ * 暂停只是不再拉取新记录，已拉取的记录照常处理，消费者保持在组内，不会触发再均衡。
+ * 只恢复本类暂停的容器：已被运维或其他组件暂停的容器不计入，回落时保持原状。
+ */
+@Component
+public class KafkaListenerBackpressure implements BoundedEventExecutor.BackpressureListener {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaListenerBackpressure.class);
+
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    // 由 this 保护
+    private final List<MessageListenerContainer> paused = new ArrayList<>();
+
+    public KafkaListenerBackpressure(KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry) {
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+    }
+
+    @Override
+    public synchronized void onHighWaterMark(int pending) {
+        log.warn("Event executor over high-water mark, pausing Kafka listeners: pending={}", pending);
+        for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getListenerContainers()) {
+            if (!container.isPauseRequested()) {
+                container.pause();
+                paused.add(container);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onLowWaterMark(int pending) {
+        log.info("Event executor back to low-water mark, resuming Kafka listeners: pending={}, containers={}",
+                pending, paused.size());
+        paused.forEach(MessageListenerContainer::resume);
+        paused.clear();
+    }
+}
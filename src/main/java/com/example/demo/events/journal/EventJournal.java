@@ -0,0 +1,436 @@
+package com.example.demo.events.journal;
+
+import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.transport.BinaryDomainEventCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 本地事件日志：把发布与消费的 DomainEventMessage 顺序追加到内存映射的段文件，支持按序号或时间区间回放。
+ * <p>
+ * 每条记录分配一个全局递增的序号；每个段维护一份稀疏索引（每隔 indexInterval 字节记一项：序号、追加时间、段内位置），
+ * 按序号或时间定位时先二分索引，再在段内顺序扫描少量帧。索引常驻内存，打开日志时扫描帧头重建。
+ * <pre>
+ * 帧格式：length:i32 | crc32c:i32 | sequence:i64 | appendedAt:i64 | direction:u8 | body[length]
+ * </pre>
+ * 写入只进页缓存，滚动段和关闭时才 force；日志用于回放与预热，不承担发件箱那样的持久性保证。
+ */
+public final class EventJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 1;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * 记录的来源方向。新增取值只能追加在末尾，帧中按序号保存
+     */
+    public enum Direction {
+        /**
+         * 本实例发布，本地分发成功后写入；与 Kafka 发送是否成功、是否重发无关
+         */
+        PUBLISHED,
+        /**
+         * 从 Kafka 消费，本地分发成功后写入；分发失败后的重试不会重复写入，
+         * 但未启用入站幂等时，已成功分发的记录被重投（如位点提交失败）仍会再写一次
+         */
+        CONSUMED,
+        /**
+         * 本实例只发往 Kafka、没有在本地分发（{@code publishKafkaEvent}），调用时写入；收回并分发后另有一条 CONSUMED 记录
+         */
+        FORWARDED
+    }
+
+    /**
+     * 回放得到的一条记录
+     *
+     * @param sequence   全局序号
+     * @param appendedAt 追加到日志的时间
+     * @param direction  发布或消费
+     * @param message    事件消息
+     */
+    public record JournalEntry(long sequence, Instant appendedAt, Direction direction, DomainEventMessage message) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexInterval;
+    private final int maxSegments;
+    private final BinaryDomainEventCodec codec;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // 由 writeLock 保护
+    private Segment active;
+    private long lastTimestamp;
+
+    /**
+     * @param directory     日志目录
+     * @param segmentBytes  单个段文件大小（映射大小）
+     * @param indexInterval 稀疏索引的间隔字节数
+     * @param maxSegments   最多保留的段数，滚动时删除最旧的段
+     * @param codec         二进制编码
+     */
+    public EventJournal(Path directory, int segmentBytes, int indexInterval, int maxSegments,
+                        BinaryDomainEventCodec codec) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+        this.maxSegments = maxSegments;
+        this.codec = codec;
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            long[] bases = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toArray();
+            for (long base : bases) {
+                Segment segment = openSegment(base);
+                segment.recover();
+                segments.put(base, segment);
+            }
+        }
+        if (segments.isEmpty()) {
+            active = openSegment(0);
+            segments.put(0L, active);
+        } else {
+            active = segments.lastEntry().getValue();
+            lastTimestamp = active.lastTimestamp;
+        }
+    }
+
+    /**
+     * 追加一条消息
+     *
+     * @param message   事件消息
+     * @param direction 发布或消费
+     * @return 分配的序号
+     */
+    public long append(DomainEventMessage message, Direction direction) {
+        byte[] body = codec.encode(message);
+        writeLock.lock();
+        try {
+            return appendLocked(body, direction);
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal append failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 追加一批消息，整批在一次加锁内写入
+     *
+     * @param messages  事件消息
+     * @param direction 发布或消费
+     */
+    public void appendAll(List<DomainEventMessage> messages, Direction direction) {
+        byte[][] bodies = new byte[messages.size()][];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = codec.encode(messages.get(i));
+        }
+        writeLock.lock();
+        try {
+            for (byte[] body : bodies) {
+                appendLocked(body, direction);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal append failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 尽力追加：失败时只记录日志，不影响发布与消费主流程
+     *
+     * @param message   事件消息
+     * @param direction 发布或消费
+     */
+    public void record(DomainEventMessage message, Direction direction) {
+        try {
+            append(message, direction);
+        } catch (RuntimeException e) {
+            log.warn("Failed to journal {} event: id={}", direction, message.id(), e);
+        }
+    }
+
+    /**
+     * 尽力追加一批消息，失败时只记录日志
+     *
+     * @param messages  事件消息
+     * @param direction 发布或消费
+     */
+    public void recordAll(List<DomainEventMessage> messages, Direction direction) {
+        try {
+            appendAll(messages, direction);
+        } catch (RuntimeException e) {
+            log.warn("Failed to journal {} events: count={}", direction, messages.size(), e);
+        }
+    }
+
+    /**
+     * 回放 [fromSequence, toSequence) 区间内的记录，按序号顺序直接从映射内存读取
+     *
+     * @param fromSequence 起始序号（含），早于最旧记录时从最旧记录开始
+     * @param toSequence   结束序号（不含）
+     * @param consumer     记录消费者
+     * @return 回放的记录数
+     */
+    public long replay(long fromSequence, long toSequence, Consumer<JournalEntry> consumer) {
+        long count = 0;
+        Map.Entry<Long, Segment> start = segments.floorEntry(fromSequence);
+        Long startKey = (start != null) ? start.getKey() : segments.firstKey();
+        for (Segment segment : segments.tailMap(startKey, true).values()) {
+            if (segment.baseSequence >= toSequence) {
+                break;
+            }
+            ByteBuffer view = segment.buffer.duplicate();
+            int limit = segment.limit;
+            int position = segment.positionOf(fromSequence);
+            while (position + HEADER_BYTES <= limit) {
+                int length = view.getInt(position);
+                long sequence = view.getLong(position + 8);
+                if (sequence >= toSequence) {
+                    return count;
+                }
+                int next = position + HEADER_BYTES + length;
+                if (sequence >= fromSequence) {
+                    byte[] body = new byte[length];
+                    view.get(position + HEADER_BYTES, body);
+                    if (view.getInt(position + 4) != crc32c(body)) {
+                        log.warn("Corrupt journal frame, stop segment replay: segment={}, position={}",
+                                segment.baseSequence, position);
+                        break;
+                    }
+                    Direction direction = DIRECTIONS[view.get(position + 24)];
+                    consumer.accept(new JournalEntry(sequence, Instant.ofEpochMilli(view.getLong(position + 16)),
+                            direction, codec.decode(body)));
+                    count++;
+                }
+                position = next;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 定位第一条追加时间不早于给定时间的记录
+     *
+     * @param time 时间
+     * @return 该记录的序号；所有记录都早于给定时间时返回 {@link #nextSequence()}
+     */
+    public long sequenceAt(Instant time) {
+        long millis = time.toEpochMilli();
+        for (Segment segment : segments.values()) {
+            if (segment.limit == 0 || segment.lastTimestamp < millis) {
+                continue;
+            }
+            ByteBuffer view = segment.buffer.duplicate();
+            int position = segment.indexPositionBefore(millis);
+            int limit = segment.limit;
+            while (position + HEADER_BYTES <= limit) {
+                if (view.getLong(position + 16) >= millis) {
+                    return view.getLong(position + 8);
+                }
+                position += HEADER_BYTES + view.getInt(position);
+            }
+        }
+        return nextSequence();
+    }
+
+    /**
+     * 最旧一条记录的序号
+     */
+    public long firstSequence() {
+        return segments.firstKey();
+    }
+
+    /**
+     * 下一条追加记录将分配的序号
+     */
+    public long nextSequence() {
+        return segments.lastEntry().getValue().endSequence;
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            active.buffer.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long appendLocked(byte[] body, Direction direction) throws IOException {
+        int frameBytes = HEADER_BYTES + body.length;
+        if (frameBytes > segmentBytes) {
+            throw new IllegalArgumentException("Journal record larger than segment: " + frameBytes);
+        }
+        if (active.limit + frameBytes > segmentBytes) {
+            roll();
+        }
+        // 追加时间单调不减，保证时间索引有序
+        long now = Math.max(System.currentTimeMillis(), lastTimestamp);
+        lastTimestamp = now;
+        long sequence = active.endSequence;
+        int position = active.limit;
+
+        MappedByteBuffer buffer = active.buffer;
+        buffer.putInt(position + 4, crc32c(body));
+        buffer.putLong(position + 8, sequence);
+        buffer.putLong(position + 16, now);
+        buffer.put(position + 24, (byte) direction.ordinal());
+        buffer.put(position + HEADER_BYTES, body);
+        // 长度最后写：恢复时长度为 0 即视为末尾
+        buffer.putInt(position, body.length);
+
+        active.indexIfDue(sequence, now, position);
+        active.lastTimestamp = now;
+        active.endSequence = sequence + 1;
+        // limit 为 volatile，写入它之后帧对读取方可见
+        active.limit = position + frameBytes;
+        return sequence;
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        Segment next = openSegment(active.endSequence);
+        segments.put(next.baseSequence, next);
+        active = next;
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            // 映射在 GC 回收前仍然有效，正在回放该段的读取方不受影响
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    private Segment openSegment(long baseSequence) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseSequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            return new Segment(baseSequence, path, buffer, segmentBytes / indexInterval + 1);
+        }
+    }
+
+    private static int crc32c(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 一个映射段及其稀疏索引。索引项由写线程追加，先写数组再发布 indexCount。
+     */
+    private final class Segment {
+
+        final long baseSequence;
+        final Path path;
+        final MappedByteBuffer buffer;
+        final long[] indexSequences;
+        final long[] indexTimestamps;
+        final int[] indexPositions;
+        volatile int indexCount;
+        volatile int limit;
+        volatile long endSequence;
+        volatile long lastTimestamp;
+        int lastIndexedPosition = Integer.MIN_VALUE;
+
+        Segment(long baseSequence, Path path, MappedByteBuffer buffer, int maxIndexEntries) {
+            this.baseSequence = baseSequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.indexSequences = new long[maxIndexEntries];
+            this.indexTimestamps = new long[maxIndexEntries];
+            this.indexPositions = new int[maxIndexEntries];
+            this.endSequence = baseSequence;
+        }
+
+        void indexIfDue(long sequence, long timestamp, int position) {
+            int count = indexCount;
+            if (position - lastIndexedPosition >= indexInterval && count < indexPositions.length) {
+                indexSequences[count] = sequence;
+                indexTimestamps[count] = timestamp;
+                indexPositions[count] = position;
+                lastIndexedPosition = position;
+                indexCount = count + 1;
+            }
+        }
+
+        /**
+         * 不晚于给定序号的最近索引项的位置
+         */
+        int positionOf(long sequence) {
+            int i = Arrays.binarySearch(indexSequences, 0, indexCount, sequence);
+            return entryPosition(i);
+        }
+
+        /**
+         * 早于给定时间的最近索引项的位置
+         */
+        int indexPositionBefore(long timestamp) {
+            // 时间可能重复，取严格早于 timestamp 的最后一项，保证不跳过等于 timestamp 的记录
+            int i = Arrays.binarySearch(indexTimestamps, 0, indexCount, timestamp - 1);
+            return entryPosition(i);
+        }
+
+        private int entryPosition(int searchResult) {
+            int i = (searchResult >= 0) ? searchResult : -searchResult - 2;
+            return (i < 0) ? 0 : indexPositions[i];
+        }
+
+        /**
+         * 扫描帧头重建索引与写入位置，遇到长度为 0、越界或校验失败的帧即视为末尾
+         */
+        void recover() {
+            int position = 0;
+            long sequence = baseSequence;
+            while (position + HEADER_BYTES <= segmentBytes) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > segmentBytes) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(position + HEADER_BYTES, body);
+                if (buffer.getInt(position + 4) != crc32c(body)) {
+                    log.warn("Truncating journal segment {} at {}: checksum mismatch", baseSequence, position);
+                    break;
+                }
+                sequence = buffer.getLong(position + 8);
+                long timestamp = buffer.getLong(position + 16);
+                indexIfDue(sequence, timestamp, position);
+                lastTimestamp = timestamp;
+                sequence++;
+                position += HEADER_BYTES + length;
+            }
+            // 清掉末尾残帧的长度字段，后续追加从这里覆盖
+            if (position + 4 <= segmentBytes) {
+                buffer.putInt(position, 0);
+            }
+            limit = position;
+            endSequence = sequence;
+        }
+    }
+}
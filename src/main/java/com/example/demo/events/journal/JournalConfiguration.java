@@ -0,0 +1,47 @@
+package com.example.demo.events.journal;
+
+import com.example.demo.events.publisher.LocalEventPublisher;
+import com.example.demo.events.transport.BinaryDomainEventCodec;
+import com.example.demo.events.transport.EventJson;
+import com.example.demo.events.versioning.EventVersionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 本地事件日志配置，{@code app.journal.enabled=true} 时启用
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.journal", name = "enabled", havingValue = "true")
+public class JournalConfiguration {
+
+    /**
+     * 本地事件日志Bean，容器关闭时刷盘
+     */
+    @Bean(destroyMethod = "close")
+    public EventJournal eventJournal(@Value("${app.journal.dir:data/journal}") Path directory,
+                                     @Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+                                     @Value("${app.journal.index-interval:4KB}") DataSize indexInterval,
+                                     @Value("${app.journal.max-segments:16}") int maxSegments) throws IOException {
+        return new EventJournal(directory, Math.toIntExact(segmentSize.toBytes()),
+                Math.toIntExact(indexInterval.toBytes()), maxSegments,
+                new BinaryDomainEventCodec(EventJson.mapper()));
+    }
+
+    /**
+     * 日志回放服务Bean
+     */
+    @Bean
+    public JournalReplayService journalReplayService(EventJournal eventJournal,
+                                                     LocalEventPublisher localEventPublisher,
+                                                     EventVersionManager eventVersionManager,
+                                                     @Value("${app.journal.warmup-window:0s}") Duration warmupWindow) {
+        return new JournalReplayService(eventJournal, localEventPublisher, eventVersionManager, warmupWindow);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.events.journal;
+
+import com.example.demo.events.domain.EventHeaders;
+import com.example.demo.events.publisher.LocalEventPublisher;
+import com.example.demo.events.transport.EventMappers;
+import com.example.demo.events.versioning.EventVersionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 本地事件日志回放：把日志中的记录按顺序映射为领域事件并发布到本地，标记为来自 Kafka，不会再次发出。
+ * 只回放当初分发到本地的记录，{@link EventJournal.Direction#FORWARDED} 记录跳过。
+ * <p>
+ * 配置了预热窗口时，在 Kafka 监听容器与 Web 服务启动之前回放最近一段时间的记录，
+ * 用于重建缓存和投影，不必从 Broker 重读整个主题。
+ */
+public class JournalReplayService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayService.class);
+
+    // 早于监听容器（DEFAULT_PHASE - 100）和 Web 服务器（Boot 的 WebServerStartStopLifecycle，DEFAULT_PHASE - 2048）
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final EventJournal journal;
+    private final LocalEventPublisher localEventPublisher;
+    private final EventVersionManager eventVersionManager;
+    private final Duration warmupWindow;
+    private volatile boolean running;
+
+    public JournalReplayService(EventJournal journal,
+                                LocalEventPublisher localEventPublisher,
+                                EventVersionManager eventVersionManager,
+                                Duration warmupWindow) {
+        this.journal = journal;
+        this.localEventPublisher = localEventPublisher;
+        this.eventVersionManager = eventVersionManager;
+        this.warmupWindow = warmupWindow;
+    }
+
+    /**
+     * 回放 [fromSequence, toSequence) 区间内的记录
+     *
+     * @return 扫描的记录数，含跳过的 FORWARDED 记录
+     */
+    public long replay(long fromSequence, long toSequence) {
+        return journal.replay(fromSequence, toSequence, entry -> {
+            if (entry.direction() == EventJournal.Direction.FORWARDED) {
+                return;
+            }
+            var domainEvent = EventMappers.toDomainEvent(entry.message(), eventVersionManager);
+            localEventPublisher.publishEvent(EventHeaders.markFromKafka(domainEvent));
+        });
+    }
+
+    /**
+     * 回放追加时间在 [from, to) 区间内的记录
+     *
+     * @return 回放的记录数
+     */
+    public long replay(Instant from, Instant to) {
+        return replay(journal.sequenceAt(from), journal.sequenceAt(to));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (warmupWindow.isZero() || warmupWindow.isNegative()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long to = journal.nextSequence();
+        long from = journal.sequenceAt(Instant.now().minus(warmupWindow));
+        long count = replay(from, to);
+        log.info("Journal warmup replayed {} events ({} to {}) in {} ms",
+                count, from, to, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
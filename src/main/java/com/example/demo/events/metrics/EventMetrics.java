@@ -0,0 +1,180 @@
+package com.example.demo.events.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事件处理各阶段的计时。
+ * <ul>
+ *     <li>{@code domain.events.stage}：按 stage（map/convert/dispatch/send-ack）、type、schemaId、source（app/kafka）打标签；</li>
+ *     <li>{@code domain.events.lag}：入站端到端延迟，当前时间减去事件的 occurredAt，按 type 打标签。</li>
+ * </ul>
+ * dispatch 阶段是本地发布调用本身的耗时：同步监听器计入其执行时间，在执行器上运行的监听器（{@code @DomainEventListener(executor = ...)}）
+ * 只计入任务提交与准入等待，执行时间不在其中。批量消费逐条计时，与逐条模式使用相同的 type 标签。
+ * <p>
+ * 热路径上只有两次 {@link System#nanoTime()} 和两级 ConcurrentHashMap 查找，Timer 在首次出现时创建后缓存，
+ * 不分配标签对象。type/schemaId 来自外部消息，组合数超过上限后归入 "other"，防止时间序列无限增长。
+ */
+@Component
+public class EventMetrics {
+
+    /**
+     * 计时阶段
+     */
+    public enum Stage {
+        MAP("map"), CONVERT("convert"), DISPATCH("dispatch"), SEND_ACK("send-ack");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * 事件来源
+     */
+    public enum Source {
+        APP("app"), KAFKA("kafka");
+
+        private final String tag;
+
+        Source(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String OTHER = "other";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean histograms;
+    private final int maxTagCombinations;
+    private final AtomicInteger tagCombinations = new AtomicInteger();
+    // [stage][source] -> type -> schemaId -> Timer
+    private final Map<String, Map<String, Timer>>[][] stageTimers;
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public EventMetrics(MeterRegistry meterRegistry,
+                        @Value("${app.metrics.events.enabled:true}") boolean enabled,
+                        @Value("${app.metrics.events.histograms:false}") boolean histograms,
+                        @Value("${app.metrics.events.max-tag-combinations:500}") int maxTagCombinations) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.histograms = histograms;
+        this.maxTagCombinations = maxTagCombinations;
+        this.stageTimers = new Map[Stage.values().length][Source.values().length];
+        for (Map<String, Map<String, Timer>>[] bySource : stageTimers) {
+            for (int i = 0; i < bySource.length; i++) {
+                bySource[i] = new ConcurrentHashMap<>();
+            }
+        }
+    }
+
+    /**
+     * 开始计时
+     *
+     * @return 起始时间戳；关闭指标时返回 0
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     *
+     * @param stage       阶段
+     * @param source      事件来源
+     * @param type        事件类型
+     * @param schemaId    负载契约
+     * @param startNanos  {@link #start()} 的返回值
+     */
+    public void record(Stage stage, Source source, String type, String schemaId, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        timer(stage, source, type, schemaId).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录入站端到端延迟
+     *
+     * @param type       事件类型
+     * @param occurredAt 事件发生时间
+     */
+    public void recordLag(String type, Instant occurredAt) {
+        if (!enabled || occurredAt == null) {
+            return;
+        }
+        long lagMillis = System.currentTimeMillis() - occurredAt.toEpochMilli();
+        if (lagMillis < 0) {
+            // 时钟偏差
+            lagMillis = 0;
+        }
+        lagTimer(type).record(lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private Timer timer(Stage stage, Source source, String type, String schemaId) {
+        Map<String, Map<String, Timer>> byType = stageTimers[stage.ordinal()][source.ordinal()];
+        String typeKey = (type != null) ? type : NONE;
+        String schemaKey = (schemaId != null) ? schemaId : NONE;
+        Map<String, Timer> bySchema = byType.get(typeKey);
+        if (bySchema != null) {
+            Timer timer = bySchema.get(schemaKey);
+            if (timer != null) {
+                return timer;
+            }
+        }
+        if (tagCombinations.get() >= maxTagCombinations) {
+            // 超过上限后不再缓存新组合，统一计入 other
+            return stageTimer(stage, source, OTHER, OTHER);
+        }
+        return byType.computeIfAbsent(typeKey, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(schemaKey, k -> {
+                    tagCombinations.incrementAndGet();
+                    return stageTimer(stage, source, typeKey, schemaKey);
+                });
+    }
+
+    private Timer stageTimer(Stage stage, Source source, String type, String schemaId) {
+        // 同名同标签的 Timer 由注册表去重
+        return Timer.builder("domain.events.stage")
+                .description("事件处理各阶段耗时")
+                .tag("stage", stage.tag)
+                .tag("source", source.tag)
+                .tag("type", type)
+                .tag("schemaId", schemaId)
+                .publishPercentileHistogram(histograms)
+                .register(meterRegistry);
+    }
+
+    private Timer lagTimer(String type) {
+        String typeKey = (type != null) ? type : NONE;
+        Timer timer = lagTimers.get(typeKey);
+        if (timer != null) {
+            return timer;
+        }
+        if (lagTimers.size() >= maxTagCombinations) {
+            return lagTimerFor(OTHER);
+        }
+        return lagTimers.computeIfAbsent(typeKey, this::lagTimerFor);
+    }
+
+    private Timer lagTimerFor(String type) {
+        return Timer.builder("domain.events.lag")
+                .description("入站事件端到端延迟（当前时间 - occurredAt）")
+                .tag("type", type)
+                .publishPercentileHistogram(histograms)
+                .register(meterRegistry);
+    }
+}
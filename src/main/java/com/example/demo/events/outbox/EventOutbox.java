@@ -0,0 +1,99 @@
+package com.example.demo.events.outbox;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.transport.BinaryDomainEventCodec;
+import com.example.demo.events.transport.EventMappers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 事件发件箱：请求线程只把领域事件追加到本地持久日志，由 {@link OutboxRelay} 在后台批量转发到 Kafka。
+ * <p>
+ * 记录复用 {@link BinaryDomainEventCodec} 的二进制编码，日志帧自带 CRC 校验。
+ * 只发往 Kafka、未在本地分发的事件在编码前加一个 {@link #UNDISPATCHED} 标记字节（与编码的版本字节不同），
+ * 中继转发时不写来源头，本实例同样会消费到这些事件；没有标记的记录与旧版本写入的记录相同。
+ */
+public class EventOutbox {
+
+    private static final byte UNDISPATCHED = (byte) 0x80;
+
+    /**
+     * 从日志还原的事件
+     *
+     * @param event             领域事件
+     * @param dispatchedLocally 追加时是否已在本地分发
+     */
+    record OutboxEvent(BaseDomainEvent<?> event, boolean dispatchedLocally) {
+    }
+
+    private final OutboxLog outboxLog;
+    private final BinaryDomainEventCodec codec;
+
+    public EventOutbox(OutboxLog outboxLog, BinaryDomainEventCodec codec) {
+        this.outboxLog = outboxLog;
+        this.codec = codec;
+    }
+
+    /**
+     * 追加一个已在本地分发的领域事件，落盘后返回
+     *
+     * @param event 领域事件
+     */
+    public void append(BaseDomainEvent<?> event) {
+        outboxLog.append(codec.encode(EventMappers.toMessage(event)));
+    }
+
+    /**
+     * 追加一个只发往 Kafka、未在本地分发的领域事件，落盘后返回
+     *
+     * @param event 领域事件
+     */
+    public void appendUndispatched(BaseDomainEvent<?> event) {
+        byte[] encoded = codec.encode(EventMappers.toMessage(event));
+        byte[] record = new byte[encoded.length + 1];
+        record[0] = UNDISPATCHED;
+        System.arraycopy(encoded, 0, record, 1, encoded.length);
+        outboxLog.append(record);
+    }
+
+    /**
+     * 追加一个已在本地分发的领域事件，不等待落盘
+     *
+     * @param event 领域事件
+     * @return 落盘后完成的 future
+     */
+    public CompletableFuture<Void> appendAsync(BaseDomainEvent<?> event) {
+        return outboxLog.appendAllAsync(List.of(codec.encode(EventMappers.toMessage(event))));
+    }
+
+    /**
+     * 追加一组已在本地分发的领域事件，整组在同一次组提交中落盘
+     *
+     * @param events 领域事件
+     */
+    public void appendAll(List<? extends BaseDomainEvent<?>> events) {
+        List<byte[]> records = new ArrayList<>(events.size());
+        for (BaseDomainEvent<?> event : events) {
+            records.add(codec.encode(EventMappers.toMessage(event)));
+        }
+        outboxLog.appendAll(records);
+    }
+
+    /**
+     * 将日志记录还原为领域事件，供中继转发
+     */
+    OutboxEvent decode(byte[] record) {
+        boolean dispatchedLocally = record.length == 0 || record[0] != UNDISPATCHED;
+        byte[] encoded = dispatchedLocally ? record : Arrays.copyOfRange(record, 1, record.length);
+        DomainEventMessage message = codec.decode(encoded);
+        return new OutboxEvent(EventMappers.toDomainEvent(message), dispatchedLocally);
+    }
+
+    OutboxLog log() {
+        return outboxLog;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.events.outbox;
+
+import com.example.demo.events.publisher.KafkaEventPublisher;
+import com.example.demo.events.transport.BinaryDomainEventCodec;
+import com.example.demo.events.transport.EventJson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 事件发件箱配置，{@code app.outbox.enabled=true} 时启用
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfiguration {
+
+    /**
+     * 发件箱日志Bean，容器关闭时关闭
+     */
+    @Bean(destroyMethod = "close")
+    public OutboxLog outboxLog(@Value("${app.outbox.dir:data/outbox}") Path directory,
+                               @Value("${app.outbox.segment-size:64MB}") DataSize segmentSize,
+                               @Value("${app.outbox.fsync:true}") boolean fsync,
+                               @Value("${app.outbox.max-group-commit:1024}") int maxGroupCommit) throws IOException {
+        return new OutboxLog(directory, segmentSize.toBytes(), fsync, maxGroupCommit);
+    }
+
+    /**
+     * 事件发件箱Bean
+     */
+    @Bean
+    public EventOutbox eventOutbox(OutboxLog outboxLog) {
+        return new EventOutbox(outboxLog, new BinaryDomainEventCodec(EventJson.mapper()));
+    }
+
+    /**
+     * 发件箱中继Bean
+     */
+    @Bean
+    public OutboxRelay outboxRelay(EventOutbox eventOutbox,
+                                   KafkaEventPublisher kafkaEventPublisher,
+                                   @Value("${app.outbox.relay.batch-size:500}") int batchSize,
+                                   @Value("${app.outbox.relay.send-timeout:30s}") Duration sendTimeout,
+                                   @Value("${app.outbox.relay.idle-wait:1s}") Duration idleWait,
+                                   @Value("${app.outbox.relay.max-backoff:30s}") Duration maxBackoff) {
+        return new OutboxRelay(eventOutbox, kafkaEventPublisher, batchSize, sendTimeout, idleWait, maxBackoff);
+    }
+}
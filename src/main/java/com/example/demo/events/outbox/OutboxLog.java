@@ -0,0 +1,488 @@
+package com.example.demo.events.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 基于文件的分段追加日志，发件箱的持久化存储。
+ * <p>
+ * 写入走组提交：调用线程把记录放进队列后等待，单个写线程一次取出队列中的所有记录，
+ * 用一次聚集写入落盘并 {@link FileChannel#force(boolean)} 一次，再统一唤醒调用线程。
+ * 并发越高，每次 fsync 摊到的记录越多。
+ * <pre>
+ * 帧格式：length:i32 | crc32c:i32 | body[length]
+ * </pre>
+ * 段文件写满 segmentBytes 后滚动到下一段；读取位置越过的段在提交检查点时删除。
+ * 启动时校验最后一段的帧，截掉崩溃时写了一半的尾部。
+ */
+public final class OutboxLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxLog.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String CHECKPOINT_TMP_FILE = "checkpoint.tmp";
+    private static final PendingAppend CLOSE = new PendingAppend(List.of(), new CompletableFuture<>());
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final int maxGroupCommit;
+    private final BlockingQueue<PendingAppend> pending = new LinkedBlockingQueue<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // 仅写线程访问
+    private FileChannel writeChannel;
+    private long writeSegment;
+    private long writeOffset;
+    // 已落盘的末尾位置，读取不会越过它
+    private volatile OutboxPosition durablePosition;
+
+    // 仅读取方（中继线程）访问
+    private FileChannel readChannel;
+    private long readSegment = -1;
+
+    private volatile OutboxPosition checkpoint;
+
+    /**
+     * @param directory      日志目录
+     * @param segmentBytes   单个段文件的滚动阈值
+     * @param fsync          每次组提交后是否 fsync；关闭时只保证写入页缓存
+     * @param maxGroupCommit 一次组提交最多合并的追加请求数
+     */
+    public OutboxLog(Path directory, long segmentBytes, boolean fsync, int maxGroupCommit) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.maxGroupCommit = maxGroupCommit;
+        Files.createDirectories(directory);
+
+        this.checkpoint = readCheckpoint();
+        long lastSegment = Math.max(lastSegment(), checkpoint.segment());
+        openForAppend(lastSegment);
+        deleteSegmentsBefore(checkpoint.segment());
+
+        this.writer = Thread.ofPlatform().name("outbox-writer").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * 追加一条记录，落盘后返回
+     *
+     * @param record 记录内容
+     */
+    public void append(byte[] record) {
+        appendAll(List.of(record));
+    }
+
+    /**
+     * 追加一组记录，整组在同一次组提交中落盘后返回
+     *
+     * @param records 记录内容
+     */
+    public void appendAll(List<byte[]> records) {
+        try {
+            appendAllAsync(records).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Outbox append failed", e.getCause());
+        }
+    }
+
+    /**
+     * 追加一组记录，不等待落盘
+     *
+     * @param records 记录内容
+     * @return 整组落盘后完成的 future，在写线程上完成，回调中不要做耗时操作
+     */
+    public CompletableFuture<Void> appendAllAsync(List<byte[]> records) {
+        if (records.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (closed) {
+            throw new IllegalStateException("Outbox log is closed");
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        pending.add(new PendingAppend(records, done));
+        return done;
+    }
+
+    /**
+     * 从给定位置读取已落盘的记录
+     *
+     * @param from       起始位置
+     * @param maxRecords 最多读取的记录数
+     * @return 读到的记录及下一次读取的位置；没有新记录时记录列表为空
+     */
+    public OutboxBatch read(OutboxPosition from, int maxRecords) throws IOException {
+        OutboxPosition end = durablePosition;
+        long segment = from.segment();
+        long offset = from.offset();
+        List<byte[]> records = new ArrayList<>(Math.min(maxRecords, 256));
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (records.size() < maxRecords) {
+            boolean activeSegment = (segment == end.segment());
+            long limit = activeSegment ? end.offset() : segmentSize(segment);
+            if (offset >= limit) {
+                if (activeSegment || segment > end.segment()) {
+                    break;
+                }
+                // 旧段已读完，进入下一段
+                segment++;
+                offset = 0;
+                continue;
+            }
+            FileChannel channel = readChannel(segment);
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(channel, body, offset + HEADER_BYTES);
+            if (crc != crc32c(body.array())) {
+                throw new IOException("Corrupt outbox frame at segment " + segment + ", offset " + offset);
+            }
+            records.add(body.array());
+            offset += HEADER_BYTES + length;
+        }
+        return new OutboxBatch(records, new OutboxPosition(segment, offset));
+    }
+
+    /**
+     * 等待给定位置之后出现新记录
+     *
+     * @param after   当前读取位置
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 有新记录时返回 true
+     */
+    public boolean awaitAppend(OutboxPosition after, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        appendLock.lock();
+        try {
+            while (durablePosition.compareTo(after) <= 0) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = appended.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 最近一次提交的检查点，即中继已确认发出的位置
+     */
+    public OutboxPosition checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * 提交检查点：原子替换检查点文件，并删除已完全越过的段
+     *
+     * @param position 已确认发出的位置
+     */
+    public void commit(OutboxPosition position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16).putLong(position.segment()).putLong(position.offset()).flip();
+        Path tmp = directory.resolve(CHECKPOINT_TMP_FILE);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        OutboxPosition previous = checkpoint;
+        checkpoint = position;
+        if (position.segment() > previous.segment()) {
+            deleteSegmentsBefore(position.segment());
+        }
+    }
+
+    /**
+     * 已落盘的末尾位置
+     */
+    public OutboxPosition durablePosition() {
+        return durablePosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 关闭后才入队的请求不会再被写线程处理
+        PendingAppend left;
+        while ((left = pending.poll()) != null) {
+            left.done().completeExceptionally(new IllegalStateException("Outbox log is closed"));
+        }
+        writeChannel.close();
+        if (readChannel != null) {
+            readChannel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxGroupCommit);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                // 不响应中断：中断会关闭 FileChannel，只通过 CLOSE 退出
+                continue;
+            }
+            pending.drainTo(batch, maxGroupCommit - 1);
+            running = !batch.remove(CLOSE);
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) {
+        try {
+            int frames = 0;
+            long bytes = 0;
+            for (PendingAppend append : batch) {
+                for (byte[] record : append.records()) {
+                    frames++;
+                    bytes += HEADER_BYTES + record.length;
+                }
+            }
+            if (writeOffset > 0 && writeOffset + bytes > segmentBytes) {
+                roll();
+            }
+
+            ByteBuffer[] buffers = new ByteBuffer[frames * 2];
+            int i = 0;
+            for (PendingAppend append : batch) {
+                for (byte[] record : append.records()) {
+                    buffers[i++] = ByteBuffer.allocate(HEADER_BYTES).putInt(record.length).putInt(crc32c(record)).flip();
+                    buffers[i++] = ByteBuffer.wrap(record);
+                }
+            }
+            long written = 0;
+            while (written < bytes) {
+                written += writeChannel.write(buffers);
+            }
+            if (fsync) {
+                writeChannel.force(false);
+            }
+            writeOffset += bytes;
+        } catch (IOException | RuntimeException e) {
+            log.error("Outbox group commit failed: segment={}, offset={}", writeSegment, writeOffset, e);
+            truncateTail();
+            for (PendingAppend append : batch) {
+                append.done().completeExceptionally(e);
+            }
+            return;
+        }
+
+        publishDurablePosition(new OutboxPosition(writeSegment, writeOffset));
+        for (PendingAppend append : batch) {
+            append.done().complete(null);
+        }
+    }
+
+    private void publishDurablePosition(OutboxPosition position) {
+        appendLock.lock();
+        try {
+            durablePosition = position;
+            appended.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 组提交失败后截掉可能写了一半的帧，下一次写入从最后一个完整帧之后开始
+     */
+    private void truncateTail() {
+        try {
+            writeChannel.truncate(writeOffset);
+            writeChannel.position(writeOffset);
+        } catch (IOException e) {
+            log.error("Failed to truncate outbox segment {} to {}", writeSegment, writeOffset, e);
+        }
+    }
+
+    private void roll() throws IOException {
+        writeChannel.force(true);
+        writeChannel.close();
+        writeSegment++;
+        writeOffset = 0;
+        writeChannel = FileChannel.open(segmentPath(writeSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        writeChannel.truncate(0);
+        // 段文件本身是新建的，目录项也要落盘
+        forceDirectory();
+    }
+
+    private void openForAppend(long segment) throws IOException {
+        writeSegment = segment;
+        writeChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeOffset = recover(writeChannel);
+        writeChannel.truncate(writeOffset);
+        writeChannel.position(writeOffset);
+        durablePosition = new OutboxPosition(writeSegment, writeOffset);
+    }
+
+    /**
+     * 从头校验段内的帧，返回最后一个完整帧之后的偏移
+     */
+    private long recover(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length < 0 || offset + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(channel, body, offset + HEADER_BYTES);
+            if (crc != crc32c(body.array())) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        if (offset < size) {
+            log.warn("Truncating torn outbox tail: segment={}, validBytes={}, fileBytes={}", writeSegment, offset, size);
+        }
+        return offset;
+    }
+
+    private OutboxPosition readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return OutboxPosition.START;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new OutboxPosition(buffer.getLong(), buffer.getLong());
+    }
+
+    private long lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    private void deleteSegmentsBefore(long segment) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)
+                        && Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())) < segment) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private FileChannel readChannel(long segment) throws IOException {
+        if (segment != readSegment) {
+            if (readChannel != null) {
+                readChannel.close();
+            }
+            readChannel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+            readSegment = segment;
+        }
+        return readChannel;
+    }
+
+    private long segmentSize(long segment) throws IOException {
+        try {
+            return Files.size(segmentPath(segment));
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // 部分平台不支持对目录 fsync
+            log.debug("Directory fsync not supported: {}", directory);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of outbox segment at " + offset);
+            }
+            offset += read;
+        }
+    }
+
+    private static int crc32c(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private record PendingAppend(List<byte[]> records, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * 一次读取的结果
+     *
+     * @param records 读到的记录
+     * @param next    下一次读取的位置
+     */
+    public record OutboxBatch(List<byte[]> records, OutboxPosition next) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.events.outbox;
+
+/**
+ * 发件箱日志中的位置：段号 + 段内字节偏移
+ *
+ * @param segment 段号，段文件名为零填充的段号
+ * @param offset  段内字节偏移，指向下一帧的起始位置
+ */
+public record OutboxPosition(long segment, long offset) implements Comparable<OutboxPosition> {
+
+    public static final OutboxPosition START = new OutboxPosition(0, 0);
+
+    @Override
+    public int compareTo(OutboxPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return (bySegment != 0) ? bySegment : Long.compare(offset, other.offset);
+    }
+}
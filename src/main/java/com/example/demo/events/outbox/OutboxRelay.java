@@ -0,0 +1,157 @@
+package com.example.demo.events.outbox;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.publisher.KafkaEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 发件箱中继：后台线程从检查点位置成批读取日志，交给 {@link KafkaEventPublisher#publishAll} 发送，
+ * 整批确认后再推进检查点。已在本地分发的事件写来源头，只发往 Kafka 的事件不写。
+ * <p>
+ * 发送失败或超时时不推进检查点，按指数退避重试同一批，保证至少一次投递；Broker 故障期间请求线程不受影响，
+ * 事件在日志中积压，恢复后一次性追平。
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final EventOutbox outbox;
+    private final KafkaEventPublisher kafkaEventPublisher;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration idleWait;
+    private final Duration maxBackoff;
+
+    private final Object backoffMonitor = new Object();
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param outbox              发件箱
+     * @param kafkaEventPublisher Kafka 事件发布器
+     * @param batchSize           单批最多转发的记录数
+     * @param sendTimeout         等待整批确认的超时
+     * @param idleWait            没有新记录时的最长等待，追加会提前唤醒
+     * @param maxBackoff          发送失败重试的最大退避
+     */
+    public OutboxRelay(EventOutbox outbox, KafkaEventPublisher kafkaEventPublisher, int batchSize,
+                       Duration sendTimeout, Duration idleWait, Duration maxBackoff) {
+        this.outbox = outbox;
+        this.kafkaEventPublisher = kafkaEventPublisher;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.idleWait = idleWait;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("outbox-relay").daemon().start(this::relayLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        // 不用中断唤醒：中断会关闭日志正在使用的 FileChannel；各处等待都有上限
+        synchronized (backoffMonitor) {
+            backoffMonitor.notifyAll();
+        }
+        try {
+            thread.join(sendTimeout.plus(idleWait).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relayLoop() {
+        OutboxLog outboxLog = outbox.log();
+        OutboxPosition position = outboxLog.checkpoint();
+        long backoffMillis = 0;
+        while (running) {
+            try {
+                if (backoffMillis > 0) {
+                    backoff(backoffMillis);
+                }
+                OutboxLog.OutboxBatch batch = outboxLog.read(position, batchSize);
+                if (batch.records().isEmpty()) {
+                    outboxLog.awaitAppend(position, idleWait.toMillis(), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                publish(decode(batch.records())).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                outboxLog.commit(batch.next());
+                position = batch.next();
+                backoffMillis = 0;
+            } catch (InterruptedException e) {
+                log.warn("Outbox relay interrupted at {}, stopping", position);
+                return;
+            } catch (ExecutionException | TimeoutException | IOException | RuntimeException e) {
+                backoffMillis = nextBackoff(backoffMillis);
+                log.warn("Outbox relay failed at {}, retrying in {} ms", position, backoffMillis, e);
+            }
+        }
+    }
+
+    private void backoff(long millis) throws InterruptedException {
+        synchronized (backoffMonitor) {
+            if (running) {
+                backoffMonitor.wait(millis);
+            }
+        }
+    }
+
+    /**
+     * 按本地分发标记切成连续的段依次交给发布器；发布器在返回前已逐条发起发送，段之间的发送顺序不变
+     */
+    private CompletableFuture<Void> publish(List<EventOutbox.OutboxEvent> events) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        List<BaseDomainEvent<?>> run = new ArrayList<>(events.size());
+        boolean runDispatched = false;
+        for (EventOutbox.OutboxEvent event : events) {
+            if (!run.isEmpty() && event.dispatchedLocally() != runDispatched) {
+                sends.add(kafkaEventPublisher.publishAll(run, runDispatched));
+                run = new ArrayList<>();
+            }
+            runDispatched = event.dispatchedLocally();
+            run.add(event.event());
+        }
+        if (!run.isEmpty()) {
+            sends.add(kafkaEventPublisher.publishAll(run, runDispatched));
+        }
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture<?>[]::new));
+    }
+
+    private List<EventOutbox.OutboxEvent> decode(List<byte[]> records) {
+        List<EventOutbox.OutboxEvent> events = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            try {
+                events.add(outbox.decode(record));
+            } catch (RuntimeException e) {
+                // 无法解码的记录重试也不会成功，跳过以免阻塞后续事件
+                log.error("Skip undecodable outbox record: bytes={}", record.length, e);
+            }
+        }
+        return events;
+    }
+
+    private long nextBackoff(long current) {
+        long next = (current == 0) ? 100 : current * 2;
+        return Math.min(next, maxBackoff.toMillis());
+    }
+}
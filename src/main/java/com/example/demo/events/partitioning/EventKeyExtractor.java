@@ -0,0 +1,79 @@
+package com.example.demo.events.partitioning;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * 从领域事件中提取 Kafka 记录键（分区键）
+ */
+@FunctionalInterface
+public interface EventKeyExtractor {
+
+    /**
+     * @param event 要发布的领域事件
+     * @return 记录键；返回 null 表示交给下一级策略（最终回退到 correlationId）
+     */
+    String extract(BaseDomainEvent<?> event);
+
+    /**
+     * 以负载的某个属性作为键。访问器在这里解析一次并绑定成方法句柄，发送时不再走反射查找。
+     * record 按组件名取访问器，普通类按 getter 取。
+     *
+     * @param payloadClass 负载类型
+     * @param property     属性名，如 "orderId"
+     * @return 键提取器；负载不是该类型或属性值为 null 时返回 null
+     */
+    static EventKeyExtractor payloadProperty(Class<?> payloadClass, String property) {
+        Method accessor = findAccessor(payloadClass, property);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(accessor)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Key property must be public: "
+                    + payloadClass.getName() + "." + property, e);
+        }
+        return event -> {
+            Object payload = event.getPayload();
+            if (!payloadClass.isInstance(payload)) {
+                return null;
+            }
+            Object value;
+            try {
+                value = handle.invokeExact(payload);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e, "Can't read key property " + property);
+            }
+            return (value != null ? value.toString() : null);
+        };
+    }
+
+    private static Method findAccessor(Class<?> payloadClass, String property) {
+        if (payloadClass.isRecord()) {
+            for (RecordComponent component : payloadClass.getRecordComponents()) {
+                if (component.getName().equals(property)) {
+                    return component.getAccessor();
+                }
+            }
+        } else {
+            String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+            for (String name : new String[]{"get" + suffix, "is" + suffix}) {
+                try {
+                    return payloadClass.getMethod(name);
+                } catch (NoSuchMethodException ignored) {
+                    // 继续尝试下一个候选
+                }
+            }
+        }
+        throw new IllegalArgumentException("No accessor for key property "
+                + payloadClass.getName() + "." + property);
+    }
+}
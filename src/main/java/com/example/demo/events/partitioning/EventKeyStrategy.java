@@ -0,0 +1,85 @@
+package com.example.demo.events.partitioning;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.transport.EventPayloadRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 出站事件的分区键策略。
+ * <p>
+ * 按事件 type 或负载契约 schemaId 登记键提取器，查找顺序：type → schemaId（登记时解析为负载类型）→ correlationId。
+ * 同一业务实体（如同一订单）的事件落到同一分区，保证分区内有序，下游可以按键亲和地横向扩展。
+ */
+public class EventKeyStrategy {
+
+    private final Map<String, EventKeyExtractor> byType = new ConcurrentHashMap<>();
+    private final Map<Class<?>, EventKeyExtractor> byPayloadClass = new ConcurrentHashMap<>();
+
+    /**
+     * 为事件类型登记键提取器，优先级高于 schemaId
+     *
+     * @param type      事件类型，如 "OrderCreated"
+     * @param extractor 键提取器
+     * @return this，便于链式登记
+     */
+    public EventKeyStrategy registerForType(String type, EventKeyExtractor extractor) {
+        byType.put(type, extractor);
+        return this;
+    }
+
+    /**
+     * 为负载契约登记键提取器
+     *
+     * @param schemaId  本地登记的负载契约，如 "order.created.v1"
+     * @param extractor 键提取器
+     * @return this，便于链式登记
+     */
+    public EventKeyStrategy registerForSchema(String schemaId, EventKeyExtractor extractor) {
+        byPayloadClass.put(payloadClassOf(schemaId), extractor);
+        return this;
+    }
+
+    /**
+     * 以负载属性作为该契约的键，访问器在登记时解析一次
+     *
+     * @param schemaId 本地登记的负载契约，如 "order.created.v1"
+     * @param property 负载属性名，如 "orderId"
+     * @return this，便于链式登记
+     */
+    public EventKeyStrategy registerPayloadProperty(String schemaId, String property) {
+        Class<?> payloadClass = payloadClassOf(schemaId);
+        byPayloadClass.put(payloadClass, EventKeyExtractor.payloadProperty(payloadClass, property));
+        return this;
+    }
+
+    /**
+     * 计算事件的记录键
+     *
+     * @param event 要发布的领域事件
+     * @return 记录键；没有任何策略命中且 correlationId 为空时返回 null（由生产者的默认分区器决定分区）
+     */
+    public String keyOf(BaseDomainEvent<?> event) {
+        String key = null;
+        EventKeyExtractor extractor = (event.getType() != null) ? byType.get(event.getType()) : null;
+        if (extractor != null) {
+            key = extractor.extract(event);
+        }
+        if (key == null && event.getPayload() != null) {
+            extractor = byPayloadClass.get(event.getPayload().getClass());
+            if (extractor != null) {
+                key = extractor.extract(event);
+            }
+        }
+        return (key != null ? key : event.getCorrelationId());
+    }
+
+    private static Class<?> payloadClassOf(String schemaId) {
+        Class<?> payloadClass = EventPayloadRegistry.resolveClass(schemaId);
+        if (payloadClass == null) {
+            throw new IllegalArgumentException("Schema is not registered locally: " + schemaId);
+        }
+        return payloadClass;
+    }
+}
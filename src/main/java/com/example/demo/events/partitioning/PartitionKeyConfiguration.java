@@ -0,0 +1,23 @@
+package com.example.demo.events.partitioning;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 出站分区键配置：在此登记各事件类型/负载契约的键
+ */
+@Configuration
+public class PartitionKeyConfiguration {
+
+    /**
+     * 分区键策略Bean
+     *
+     * @return 登记好各契约键提取器的策略
+     */
+    @Bean
+    public EventKeyStrategy eventKeyStrategy() {
+        return new EventKeyStrategy()
+                // 同一订单的事件落在同一分区，保证按订单有序
+                .registerPayloadProperty("order.created.v1", "orderId");
+    }
+}
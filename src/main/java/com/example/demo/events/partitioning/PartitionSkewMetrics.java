@@ -0,0 +1,75 @@
+package com.example.demo.events.partitioning;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 出站分区倾斜指标。
+ * <ul>
+ *     <li>{@code domain.events.publish.partition.records}：每个分区确认的记录数（按 partition 打标签）；</li>
+ *     <li>{@code domain.events.publish.partition.skew}：最忙分区记录数 / 各分区平均记录数，1 表示完全均匀。</li>
+ * </ul>
+ * 只统计已经收到过记录的分区；分区键过于集中时倾斜值会明显大于 1。
+ */
+@Component
+public class PartitionSkewMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final String topic;
+    private final Map<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public PartitionSkewMetrics(MeterRegistry meterRegistry,
+                                @Value("${app.topics.order-events}") String topic) {
+        this.meterRegistry = meterRegistry;
+        this.topic = topic;
+        Gauge.builder("domain.events.publish.partition.skew", this, PartitionSkewMetrics::skew)
+                .description("最忙分区记录数与分区平均记录数之比")
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一条已确认的记录，在生产者 I/O 线程上调用
+     *
+     * @param partition 记录写入的分区
+     */
+    public void record(int partition) {
+        LongAdder count = counts.get(partition);
+        if (count == null) {
+            count = counts.computeIfAbsent(partition, this::register);
+        }
+        count.increment();
+    }
+
+    /**
+     * 当前倾斜度：max / mean，没有记录时为 0
+     */
+    public double skew() {
+        long max = 0;
+        long total = 0;
+        int partitions = 0;
+        for (LongAdder adder : counts.values()) {
+            long value = adder.sum();
+            max = Math.max(max, value);
+            total += value;
+            partitions++;
+        }
+        return (total == 0) ? 0.0 : (double) max * partitions / total;
+    }
+
+    private LongAdder register(int partition) {
+        LongAdder count = new LongAdder();
+        FunctionCounter.builder("domain.events.publish.partition.records", count, LongAdder::doubleValue)
+                .tag("topic", topic)
+                .tag("partition", Integer.toString(partition))
+                .register(meterRegistry);
+        return count;
+    }
+}
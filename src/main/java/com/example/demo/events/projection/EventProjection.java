@@ -0,0 +1,57 @@
+package com.example.demo.events.projection;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * 物化投影：从领域事件增量更新的内存状态，直接在本地提供查询。
+ * <p>
+ * 未启用本地事件日志时，实现类以 {@code @DomainEventListener(types = ...)} 接收实时事件并转调 {@link #apply}；
+ * 启用日志时只由 {@link ProjectionSnapshots} 用 {@link #accepts} / {@link #apply} 从日志追读，不应再接收实时事件，
+ * 否则同一事件会计入两次。{@link ProjectionSnapshots} 同时负责定期快照与启动时恢复。
+ */
+public interface EventProjection {
+
+    /**
+     * @return 投影名称，用作快照文件名
+     */
+    String name();
+
+    /**
+     * @param eventType 业务事件类型
+     * @return 是否关心该类型的事件
+     */
+    boolean accepts(String eventType);
+
+    /**
+     * 把一个事件应用到投影状态，可被多个线程并发调用
+     *
+     * @param event 领域事件
+     */
+    void apply(BaseDomainEvent<?> event);
+
+    /**
+     * 清空状态
+     */
+    void clear();
+
+    /**
+     * 写出一致的状态快照
+     *
+     * @param out      输出
+     * @param position 在状态切点上求值的上游位置
+     * @return 切点上的位置
+     */
+    long writeSnapshot(DataOutput out, LongSupplier position) throws IOException;
+
+    /**
+     * 读入 {@link #writeSnapshot} 写出的状态
+     *
+     * @param in 输入
+     */
+    void readSnapshot(DataInput in) throws IOException;
+}
@@ -0,0 +1,116 @@
+package com.example.demo.events.projection;
+
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.routing.DomainEventListener;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.LongSupplier;
+
+/**
+ * 按 userId 统计的订单数与订单总额。
+ * <p>
+ * 状态保存在 {@link StripedCounterTable} 中，金额按 {@value #AMOUNT_SCALE} 位小数的最小货币单位存为 long。
+ * 查询不访问外部存储。
+ * <p>
+ * 未启用本地事件日志时，每个 OrderCreated 事件在分发线程上同步累加一次：本实例发布的事件由本地分发计入，
+ * 经 Kafka 收回的自身记录由来源过滤跳过（{@code app.consumer.skip-self-origin}），重投由入站幂等过滤丢弃。
+ * 启用日志时不接收实时分发，只由 {@link ProjectionSnapshots} 从日志追读累加。
+ */
+public class OrderStatsProjection implements EventProjection {
+
+    public static final String NAME = "order-stats";
+
+    private static final String EVENT_TYPE = "OrderCreated";
+    private static final int AMOUNT_SCALE = 2;
+
+    private final StripedCounterTable table;
+    private final boolean live;
+
+    /**
+     * @param stripes         分段数
+     * @param initialCapacity 初始容量
+     * @param live            是否由实时分发更新，由日志追读更新时为 false
+     */
+    public OrderStatsProjection(int stripes, int initialCapacity, boolean live) {
+        this.table = new StripedCounterTable(stripes, initialCapacity);
+        this.live = live;
+    }
+
+    /**
+     * 某个用户的订单统计
+     *
+     * @param userId      用户 ID
+     * @param orderCount  订单数
+     * @param totalAmount 订单总额
+     */
+    public record OrderStats(String userId, long orderCount, BigDecimal totalAmount) {
+    }
+
+    @DomainEventListener(types = EVENT_TYPE)
+    public void onOrderCreated(BaseDomainEvent<OrderCreatedPayload> event) {
+        if (live) {
+            apply(event);
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean accepts(String eventType) {
+        return EVENT_TYPE.equals(eventType);
+    }
+
+    @Override
+    public void apply(BaseDomainEvent<?> event) {
+        if (!(event.getPayload() instanceof OrderCreatedPayload payload) || payload.userId() == null) {
+            return;
+        }
+        long amount = (payload.amount() != null)
+                ? payload.amount().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                : 0;
+        table.add(StripedCounterTable.key(payload.userId()), 1, amount);
+    }
+
+    /**
+     * 查询一个用户的订单统计
+     *
+     * @param userId 用户 ID
+     * @return 订单统计，没有订单时计数与总额为 0
+     */
+    public OrderStats statsOf(String userId) {
+        StripedCounterTable.Totals totals = table.get(StripedCounterTable.key(userId));
+        return (totals != null)
+                ? new OrderStats(userId, totals.count(), BigDecimal.valueOf(totals.sum(), AMOUNT_SCALE))
+                : new OrderStats(userId, 0, BigDecimal.valueOf(0, AMOUNT_SCALE));
+    }
+
+    /**
+     * @return 有订单的用户数
+     */
+    public int users() {
+        return table.size();
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    @Override
+    public long writeSnapshot(DataOutput out, LongSupplier position) throws IOException {
+        return table.writeTo(out, position);
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        table.readFrom(in);
+    }
+}
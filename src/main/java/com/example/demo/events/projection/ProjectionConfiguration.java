@@ -0,0 +1,45 @@
+package com.example.demo.events.projection;
+
+import com.example.demo.events.journal.EventJournal;
+import com.example.demo.events.versioning.EventVersionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 内存投影配置，{@code app.projections.enabled=false} 时关闭
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.projections", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProjectionConfiguration {
+
+    /**
+     * 按用户统计订单的投影Bean，启用本地事件日志时改由日志追读更新
+     */
+    @Bean
+    public OrderStatsProjection orderStatsProjection(@Value("${app.projections.stripes:16}") int stripes,
+                                                     @Value("${app.projections.initial-capacity:65536}") int initialCapacity,
+                                                     ObjectProvider<EventJournal> eventJournal) {
+        return new OrderStatsProjection(stripes, initialCapacity, eventJournal.getIfAvailable() == null);
+    }
+
+    /**
+     * 投影快照Bean，启用本地事件日志时由它追读日志更新投影
+     */
+    @Bean
+    public ProjectionSnapshots projectionSnapshots(List<EventProjection> projections,
+                                                   @Value("${app.projections.snapshot-dir:data/projections}") Path directory,
+                                                   @Value("${app.projections.snapshot-interval:1m}") Duration interval,
+                                                   @Value("${app.projections.tail-interval:50ms}") Duration tailInterval,
+                                                   ObjectProvider<EventJournal> eventJournal,
+                                                   EventVersionManager eventVersionManager) {
+        return new ProjectionSnapshots(projections, directory, interval, tailInterval, eventJournal.getIfAvailable(),
+                eventVersionManager);
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.demo.events.projection;
+
+import com.example.demo.events.journal.EventJournal;
+import com.example.demo.events.transport.EventMappers;
+import com.example.demo.events.versioning.EventVersionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 投影快照：启动时从快照文件恢复各投影，按周期和关闭时写出快照。
+ * <p>
+ * 快照文件为 {@code <dir>/<name>.snap}，先写临时文件再原子替换。
+ * <pre>
+ * 文件格式：magic:i32 | version:u8 | 投影状态 | journalSequence:i64（没有日志时为 -1）
+ * </pre>
+ * 启用本地事件日志时，日志是投影唯一的输入：单个线程每隔 tailInterval 从各投影已应用到的序号继续读取日志，
+ * 应用 PUBLISHED 与 CONSUMED 记录，并在两次追读之间写快照，因此快照中的序号恰好是状态之后的第一条记录，
+ * 恢复后从该序号追读不会在快照接缝处重复或遗漏。PUBLISHED 与 CONSUMED 都在本地分发成功后才写入，
+ * 失败重试、发件箱中继重发不产生额外记录；未启用入站幂等时，已成功分发的记录被 Kafka 重投仍会再计一次，
+ * 与实时分发的行为相同。此时投影不接收实时分发（也就不受日志预热影响），读到的状态最多落后一个追读间隔，
+ * 也不依赖 Kafka 发送是否成功；
+ * 追读落后于段保留范围时，被删除的记录无法计入，记录告警。
+ * <p>
+ * 未启用日志时投影由实时分发更新，快照只是状态的一致切点：正常关闭后恢复是准确的，
+ * 进程异常退出时会丢失最后一次快照之后的更新。
+ */
+public class ProjectionSnapshots implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionSnapshots.class);
+
+    // 早于日志预热（DEFAULT_PHASE - 4096）、Web 服务器（DEFAULT_PHASE - 2048）和监听容器（DEFAULT_PHASE - 100）；
+    // 关闭时最后停止，此时已不再有请求和消费
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4196;
+    private static final int MAGIC = 0x50524F4A;
+    private static final byte VERSION = 1;
+    private static final long NO_POSITION = -1;
+    private static final String SUFFIX = ".snap";
+
+    private final List<EventProjection> projections;
+    private final Path directory;
+    private final Duration interval;
+    private final Duration tailInterval;
+    private final EventJournal journal;
+    private final EventVersionManager eventVersionManager;
+
+    // 各投影下一条待应用的日志序号，由 this 保护
+    private final long[] positions;
+
+    private final Object monitor = new Object();
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param projections         投影
+     * @param directory           快照目录
+     * @param interval            定期快照的间隔，为 0 时只在关闭时快照
+     * @param tailInterval        启用日志时追读日志的间隔
+     * @param journal             本地事件日志，未启用时为 null
+     * @param eventVersionManager 读取日志时的版本迁移
+     */
+    public ProjectionSnapshots(List<EventProjection> projections, Path directory, Duration interval,
+                               Duration tailInterval, EventJournal journal, EventVersionManager eventVersionManager) {
+        if (journal != null && (tailInterval.isZero() || tailInterval.isNegative())) {
+            throw new IllegalArgumentException("tailInterval must be positive: " + tailInterval);
+        }
+        this.projections = projections;
+        this.directory = directory;
+        this.interval = interval;
+        this.tailInterval = tailInterval;
+        this.journal = journal;
+        this.eventVersionManager = eventVersionManager;
+        this.positions = new long[projections.size()];
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < projections.size(); i++) {
+            restore(i);
+        }
+        boolean periodic = !interval.isZero() && !interval.isNegative();
+        if (journal != null || periodic) {
+            thread = Thread.ofPlatform().name("projection-snapshots").daemon().start(this::runLoop);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(Math.max(interval.toMillis(), tailInterval.toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal != null) {
+            catchUpAll();
+        }
+        snapshotAll();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * 立即为所有投影写出快照，失败时只记录日志
+     */
+    public synchronized void snapshotAll() {
+        for (int i = 0; i < projections.size(); i++) {
+            EventProjection projection = projections.get(i);
+            try {
+                snapshot(i);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to snapshot projection {}", projection.name(), e);
+            }
+        }
+    }
+
+    private void runLoop() {
+        boolean periodic = !interval.isZero() && !interval.isNegative();
+        long wait = (journal != null) ? tailInterval.toMillis() : interval.toMillis();
+        long nextSnapshot = System.nanoTime() + interval.toNanos();
+        while (running) {
+            synchronized (monitor) {
+                try {
+                    monitor.wait(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (!running) {
+                return;
+            }
+            if (journal != null) {
+                catchUpAll();
+            }
+            if (periodic && System.nanoTime() - nextSnapshot >= 0) {
+                snapshotAll();
+                nextSnapshot = System.nanoTime() + interval.toNanos();
+            }
+        }
+    }
+
+    private synchronized void catchUpAll() {
+        for (int i = 0; i < projections.size(); i++) {
+            try {
+                catchUp(i);
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply journal to projection {}", projections.get(i).name(), e);
+            }
+        }
+    }
+
+    /**
+     * 从 positions[index] 读到日志末尾，按实际读到的最后一条记录推进位置，
+     * 尚在追加、对读取方还不可见的记录留到下一轮
+     *
+     * @return 读取的记录数
+     */
+    private synchronized long catchUp(int index) {
+        EventProjection projection = projections.get(index);
+        long from = positions[index];
+        long to = journal.nextSequence();
+        if (from >= to) {
+            return 0;
+        }
+        long first = journal.firstSequence();
+        if (from < first) {
+            log.warn("Projection {} lost journal sequences {} to {} to segment retention", projection.name(),
+                    from, first - 1);
+            from = first;
+        }
+        long[] last = {from - 1};
+        long count = journal.replay(from, to, entry -> {
+            if (entry.direction() != EventJournal.Direction.FORWARDED
+                    && projection.accepts(entry.message().type())) {
+                projection.apply(EventMappers.toDomainEvent(entry.message(), eventVersionManager));
+            }
+            last[0] = entry.sequence();
+        });
+        positions[index] = last[0] + 1;
+        return count;
+    }
+
+    private synchronized void snapshot(int index) throws IOException {
+        EventProjection projection = projections.get(index);
+        Files.createDirectories(directory);
+        Path target = directory.resolve(projection.name() + SUFFIX);
+        Path tmp = directory.resolve(projection.name() + SUFFIX + ".tmp");
+        long position;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            // 启用日志时只有持有 this 的追读会修改状态，位置与状态天然在同一切点
+            position = projection.writeSnapshot(out, () -> (journal != null) ? positions[index] : NO_POSITION);
+            out.writeLong(position);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Projection {} snapshot written at journal sequence {}", projection.name(), position);
+    }
+
+    private synchronized void restore(int index) {
+        EventProjection projection = projections.get(index);
+        long start = System.nanoTime();
+        long position = NO_POSITION;
+        boolean restored = false;
+        Path file = directory.resolve(projection.name() + SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            projection.readSnapshot(in);
+            position = in.readLong();
+            restored = true;
+        } catch (NoSuchFileException e) {
+            // 首次启动，没有快照
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable snapshot of projection {}: {}", projection.name(), file, e);
+            projection.clear();
+        }
+
+        long replayed = 0;
+        if (journal != null) {
+            if (restored && position == NO_POSITION) {
+                // 未启用日志时写出的快照不知道对应的日志位置，只能从日志重建
+                log.warn("Snapshot of projection {} has no journal position, rebuilding from journal",
+                        projection.name());
+                projection.clear();
+                restored = false;
+            } else if (restored && position > journal.nextSequence()) {
+                // 日志目录在快照之后被清空，现有记录都晚于快照
+                log.warn("Journal of projection {} restarted below snapshot sequence {}", projection.name(), position);
+                position = journal.firstSequence();
+            }
+            positions[index] = restored ? position : journal.firstSequence();
+            replayed = catchUp(index);
+        }
+        log.info("Projection {} restored (snapshot={}, journal replayed {} from {}) in {} ms", projection.name(),
+                restored, replayed, position, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.demo.events.projection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 以 long 为键的计数 + 求和表，供投影保存按键累加的状态。
+ * <p>
+ * 表按键的哈希分成若干段，每段是一个开放寻址（线性探测）的 long 数组，每个槽位连续存放 [键, 计数, 求和] 三个 long，
+ * 不为键和值创建对象。每段一把 {@link StampedLock}：写入持写锁；读取先做乐观读，期间有写入时退回读锁重读，
+ * 没有写入竞争时查找不加锁。装载因子达到 1/2 时该段扩容为两倍。
+ * <p>
+ * 字符串键通过 {@link #key(String)} 映射为 64 位哈希，不保存原始字符串；百万级键的碰撞概率约为 1e-7。
+ */
+public final class StripedCounterTable {
+
+    /**
+     * 空槽标记，不能作为键
+     */
+    public static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private static final int SLOT_WIDTH = 3;
+    private static final int COUNT = 1;
+    private static final int SUM = 2;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    /**
+     * @param stripes         分段数，2 的幂
+     * @param initialCapacity 预计的键数，按分段均分
+     */
+    public StripedCounterTable(int stripes, int initialCapacity) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        }
+        int perStripe = Math.max(8, Integer.highestOneBit(Math.max(1, initialCapacity * 2 / stripes) - 1) << 1);
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(perStripe);
+        }
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * 一个键当前的计数与求和
+     *
+     * @param count 计数
+     * @param sum   求和
+     */
+    public record Totals(long count, long sum) {
+    }
+
+    /**
+     * 把字符串键映射为表的键（FNV-1a 64 位哈希后再混合），结果不会是 {@link #EMPTY_KEY}
+     *
+     * @param value 字符串键
+     * @return 表的键
+     */
+    public static long key(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = mix(hash);
+        return (hash == EMPTY_KEY) ? hash + 1 : hash;
+    }
+
+    /**
+     * 累加一个键的计数与求和，键不存在时插入
+     *
+     * @param key   键，不能为 {@link #EMPTY_KEY}
+     * @param count 计数增量
+     * @param sum   求和增量
+     */
+    public void add(long key, long count, long sum) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.add(key, (int) hash, count, sum);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 读取一个键的计数与求和，两者来自同一次写入之后
+     *
+     * @param key 键
+     * @return 计数与求和；键不存在时返回 null
+     */
+    public Totals get(long key) {
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        long stamp = stripe.lock.tryOptimisticRead();
+        long[] slots = stripe.slots;
+        int index = find(slots, key, (int) hash);
+        long count = (index >= 0) ? slots[index + COUNT] : 0;
+        long sum = (index >= 0) ? slots[index + SUM] : 0;
+        if (!stripe.lock.validate(stamp)) {
+            stamp = stripe.lock.readLock();
+            try {
+                slots = stripe.slots;
+                index = find(slots, key, (int) hash);
+                count = (index >= 0) ? slots[index + COUNT] : 0;
+                sum = (index >= 0) ? slots[index + SUM] : 0;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return (index >= 0) ? new Totals(count, sum) : null;
+    }
+
+    /**
+     * @return 键的个数
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 清空全部键
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+            try {
+                stripe.reset(stripe.capacity());
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * 写出全部键值。同时持有所有分段的读锁拷贝数组，得到一个一致的切点，拷贝完成后再写出，写出期间不阻塞写入
+     *
+     * @param out      输出
+     * @param position 在切点上求值，通常为上游日志的位置
+     * @return 切点上 position 的值
+     */
+    public long writeTo(DataOutput out, LongSupplier position) throws IOException {
+        long[][] copies = new long[stripes.length][];
+        long[] stamps = new long[stripes.length];
+        long cut;
+        long entries = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            stamps[i] = stripes[i].lock.readLock();
+        }
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                copies[i] = stripes[i].slots.clone();
+                entries += stripes[i].size;
+            }
+            cut = position.getAsLong();
+        } finally {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].lock.unlockRead(stamps[i]);
+            }
+        }
+        out.writeLong(entries);
+        for (long[] slots : copies) {
+            for (int i = 0; i < slots.length; i += SLOT_WIDTH) {
+                if (slots[i] != EMPTY_KEY) {
+                    out.writeLong(slots[i]);
+                    out.writeLong(slots[i + COUNT]);
+                    out.writeLong(slots[i + SUM]);
+                }
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * 读入 {@link #writeTo} 写出的键值，累加到当前表
+     *
+     * @param in 输入
+     */
+    public void readFrom(DataInput in) throws IOException {
+        long entries = in.readLong();
+        for (long i = 0; i < entries; i++) {
+            add(in.readLong(), in.readLong(), in.readLong());
+        }
+    }
+
+    private Stripe stripeOf(long hash) {
+        // 高位选段，低位选槽，两者互不相关
+        return stripes[(int) (hash >>> 40) & stripeMask];
+    }
+
+    /**
+     * 在槽位数组中查找键
+     *
+     * @return 键所在槽位的起始下标；不存在时返回 -1
+     */
+    private static int find(long[] slots, long key, int hash) {
+        int capacity = slots.length / SLOT_WIDTH;
+        int mask = capacity - 1;
+        // 乐观读期间数组可能被并发修改，探测步数以容量为上限，结果由调用方校验
+        for (int probe = 0, slot = hash & mask; probe < capacity; probe++, slot = (slot + 1) & mask) {
+            long existing = slots[slot * SLOT_WIDTH];
+            if (existing == key) {
+                return slot * SLOT_WIDTH;
+            }
+            if (existing == EMPTY_KEY) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * murmur3 的 64 位终结混合
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * 一个分段：开放寻址的槽位数组
+     */
+    private static final class Stripe {
+
+        final StampedLock lock = new StampedLock();
+        long[] slots;
+        int size;
+
+        Stripe(int capacity) {
+            reset(capacity);
+        }
+
+        int capacity() {
+            return slots.length / SLOT_WIDTH;
+        }
+
+        void reset(int capacity) {
+            long[] fresh = new long[capacity * SLOT_WIDTH];
+            for (int i = 0; i < fresh.length; i += SLOT_WIDTH) {
+                fresh[i] = EMPTY_KEY;
+            }
+            slots = fresh;
+            size = 0;
+        }
+
+        void add(long key, int hash, long count, long sum) {
+            int mask = capacity() - 1;
+            int slot = hash & mask;
+            while (true) {
+                int index = slot * SLOT_WIDTH;
+                long existing = slots[index];
+                if (existing == key) {
+                    slots[index + COUNT] += count;
+                    slots[index + SUM] += sum;
+                    return;
+                }
+                if (existing == EMPTY_KEY) {
+                    slots[index + COUNT] = count;
+                    slots[index + SUM] = sum;
+                    // 键最后写入：乐观读看到键时值已就绪（最终仍由 validate 兜底）
+                    slots[index] = key;
+                    if (++size * 2 > capacity()) {
+                        grow();
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            long[] old = slots;
+            long[] fresh = new long[old.length * 2];
+            for (int i = 0; i < fresh.length; i += SLOT_WIDTH) {
+                fresh[i] = EMPTY_KEY;
+            }
+            int mask = fresh.length / SLOT_WIDTH - 1;
+            for (int i = 0; i < old.length; i += SLOT_WIDTH) {
+                long key = old[i];
+                if (key == EMPTY_KEY) {
+                    continue;
+                }
+                int slot = (int) mix(key) & mask;
+                while (fresh[slot * SLOT_WIDTH] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                fresh[slot * SLOT_WIDTH] = key;
+                fresh[slot * SLOT_WIDTH + COUNT] = old[i + COUNT];
+                fresh[slot * SLOT_WIDTH + SUM] = old[i + SUM];
+            }
+            // 新数组填好后一次替换，乐观读拿到的总是一个完整的数组
+            slots = fresh;
+        }
+    }
+}
@@ -1,20 +1,60 @@
 package com.example.demo.events.publisher;
 
+import com.example.demo.events.aggregation.WindowedAggregationStage;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.EventHeaders;
+import com.example.demo.events.journal.EventJournal;
+import com.example.demo.events.metrics.EventMetrics;
+import com.example.demo.events.metrics.EventMetrics.Source;
+import com.example.demo.events.metrics.EventMetrics.Stage;
+import com.example.demo.events.outbox.EventOutbox;
+import com.example.demo.events.transport.EventMappers;
+import com.example.demo.events.transport.EventPayloadRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
 /**
  * 统一事件发布服务，协调本地事件发布和Kafka事件发布
+ * <p>
+ * 启用发件箱（{@code app.outbox.enabled=true}）时，领域事件先追加到本地持久日志再发布到本地，
+ * 由后台中继转发到 Kafka：请求线程只承担一次本地追加，Broker 变慢或不可用不影响请求延迟，也不会丢事件。
+ * <p>
+ * {@link #publishAsync} 不等待确认，返回带分区与位点的 {@link PublishResult}；Kafka 发送仍在调用线程上发起，
+ * 保证同一线程发布的同键事件顺序不变，只在在途数或生产者缓冲区达到上限时阻塞调用线程（虚拟线程上代价很小）；
+ * 在途数等待超过 {@code app.producer.in-flight-timeout} 时返回的 future 异常完成，不会无限期阻塞。
+ * <p>
+ * 启用本地事件日志时，应用自身的领域事件在本地分发成功后记一条 PUBLISHED，只发往 Kafka 的事件在调用时记一条 FORWARDED；
+ * 日志与 Kafka 发送、发件箱中继无关，重发不会重复记录。
  */
 @Service
 public class EventPublishingService {
 
     private final LocalEventPublisher localEventPublisher;
     private final KafkaEventPublisher kafkaEventPublisher;
+    private final EventOutbox outbox;
+    private final EventMetrics metrics;
+    private final WindowedAggregationStage aggregationStage;
+    private final EventJournal journal;
 
     public EventPublishingService(LocalEventPublisher localEventPublisher,
-                                  KafkaEventPublisher kafkaEventPublisher) {
+                                  KafkaEventPublisher kafkaEventPublisher,
+                                  EventMetrics metrics,
+                                  ObjectProvider<EventOutbox> outbox,
+                                  ObjectProvider<WindowedAggregationStage> aggregationStage,
+                                  ObjectProvider<EventJournal> journal) {
         this.localEventPublisher = localEventPublisher;
         this.kafkaEventPublisher = kafkaEventPublisher;
+        this.metrics = metrics;
+        this.outbox = outbox.getIfAvailable();
+        this.aggregationStage = aggregationStage.getIfAvailable();
+        this.journal = journal.getIfAvailable();
     }
 
     /**
@@ -23,11 +63,97 @@ public class EventPublishingService {
      * @param event 要发布的事件
      */
     public void publishEvent(Object event) {
+        if (appendToOutbox(event)) {
+            // 已持久化，本地监听器处理失败也不会丢失出站事件
+            publishLocally(event);
+            return;
+        }
+
         // 首先发布到本地，确保本地监听器能接收到事件
-        localEventPublisher.publishEvent(event);
+        publishLocally(event);
 
         // 然后发布到Kafka，供其他服务消费
-        kafkaEventPublisher.publishEvent(event);
+        kafkaEventPublisher.publishEvent(event, true);
+    }
+
+    /**
+     * 批量发布事件到本地和Kafka。
+     * 本地逐条同步发布；Kafka 侧整批交给生产者凑批发送，不等待确认。
+     * 启用发件箱时领域事件在同一次组提交中落盘，其余事件仍直接发送。
+     *
+     * @param events 要发布的事件
+     * @return 整批被 Broker 确认（走发件箱的部分为落盘）后完成的 future，任一事件发送失败时异常完成
+     */
+    public CompletableFuture<Void> publishAll(Collection<?> events) {
+        Collection<?> direct = events;
+        if (outbox != null) {
+            List<BaseDomainEvent<?>> durable = new ArrayList<>(events.size());
+            List<Object> others = new ArrayList<>();
+            for (Object event : events) {
+                if (event instanceof BaseDomainEvent<?> domainEvent && !EventHeaders.isFromKafka(event)) {
+                    durable.add(domainEvent);
+                } else {
+                    others.add(event);
+                }
+            }
+            outbox.appendAll(durable);
+            direct = others;
+        }
+        for (Object event : events) {
+            publishLocally(event);
+        }
+        return kafkaEventPublisher.publishAll(direct, true);
+    }
+
+    /**
+     * 异步发布事件到本地和Kafka：本地同步分发，Kafka 侧不等待确认
+     *
+     * @param event 要发布的事件
+     * @return Broker 确认（启用发件箱时为落盘）后完成的 future，发送失败时异常完成
+     */
+    public CompletableFuture<PublishResult> publishAsync(Object event) {
+        String eventId = (event instanceof BaseDomainEvent<?> domainEvent) ? domainEvent.getId() : null;
+        if (outbox != null && event instanceof BaseDomainEvent<?> domainEvent && !EventHeaders.isFromKafka(event)) {
+            // 先入写队列再分发，本地监听器失败不影响出站事件
+            CompletableFuture<Void> stored = outbox.appendAsync(domainEvent);
+            publishLocally(event);
+            return stored.thenApply(ignored -> PublishResult.stored(eventId));
+        }
+        publishLocally(event);
+        return kafkaEventPublisher.publishEvent(event, true)
+                .thenApply(result -> (result != null) ? PublishResult.sent(eventId, result) : PublishResult.skipped(eventId));
+    }
+
+    /**
+     * 流式发布：逐个从流中取事件异步发布，未完成的发布数不超过 maxConcurrency，
+     * 达到上限时暂停从流中取下一个事件，直到有发布完成
+     *
+     * @param events         要发布的事件流，发布结束后关闭
+     * @param maxConcurrency 最大未完成发布数
+     * @return 全部完成后按流中顺序给出结果的 future，任一事件发布失败时异常完成
+     */
+    public CompletableFuture<List<PublishResult>> publishAll(Stream<?> events, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be > 0");
+        }
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<PublishResult>> futures = new ArrayList<>();
+        try (Stream<?> stream = events) {
+            stream.forEach(event -> {
+                permits.acquireUninterruptibly();
+                CompletableFuture<PublishResult> future;
+                try {
+                    future = publishAsync(event);
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                future.whenComplete((result, error) -> permits.release());
+                futures.add(future);
+            });
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
     }
 
     /**
@@ -36,15 +162,58 @@ public class EventPublishingService {
      * @param event 要发布的事件
      */
     public void publishLocalEvent(Object event) {
-        localEventPublisher.publishEvent(event);
+        publishLocally(event);
     }
 
     /**
-     * 仅发布事件到Kafka
+     * 仅发布事件到Kafka。事件未在本地分发，记录不带来源头，本实例的监听器经 Kafka 照常收到
      *
      * @param event 要发布的事件
      */
     public void publishKafkaEvent(Object event) {
-        kafkaEventPublisher.publishEvent(event);
+        if (journal != null && event instanceof BaseDomainEvent<?> domainEvent && !EventHeaders.isFromKafka(event)) {
+            journal.record(EventMappers.toMessage(domainEvent), EventJournal.Direction.FORWARDED);
+        }
+        if (outbox != null && event instanceof BaseDomainEvent<?> domainEvent && !EventHeaders.isFromKafka(event)) {
+            outbox.appendUndispatched(domainEvent);
+            return;
+        }
+        kafkaEventPublisher.publishEvent(event, false);
+    }
+
+    /**
+     * 启用发件箱时把应用自身产生的领域事件追加到发件箱
+     *
+     * @return 已追加时返回 true
+     */
+    private boolean appendToOutbox(Object event) {
+        if (outbox != null && event instanceof BaseDomainEvent<?> domainEvent && !EventHeaders.isFromKafka(event)) {
+            outbox.append(domainEvent);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 发布到本地，应用自身产生的领域事件记录 dispatch 阶段耗时，分发成功后写入本地事件日志
+     * （来自 Kafka 的事件由入站分发记录）
+     */
+    private void publishLocally(Object event) {
+        if (!(event instanceof BaseDomainEvent<?> domainEvent) || domainEvent.isFromKafka()) {
+            localEventPublisher.publishEvent(event);
+            return;
+        }
+        long start = metrics.start();
+        localEventPublisher.publishEvent(event);
+        // 按负载类型查契约，不触发延迟负载的解析
+        metrics.record(Stage.DISPATCH, Source.APP, domainEvent.getType(),
+                EventPayloadRegistry.resolveSchemaId(domainEvent.payloadType()), start);
+        // 本实例发出的事件不会经 Kafka 回到入站分发，在这里计入窗口
+        if (aggregationStage != null) {
+            aggregationStage.process(domainEvent);
+        }
+        if (journal != null) {
+            journal.record(EventMappers.toMessage(domainEvent), EventJournal.Direction.PUBLISHED);
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,55 +2,261 @@ package com.example.demo.events.publisher;
 
 import com.example.demo.events.domain.BaseDomainEvent;
 import com.example.demo.events.domain.EventHeaders;
+import com.example.demo.events.metrics.EventMetrics;
+import com.example.demo.events.metrics.EventMetrics.Source;
+import com.example.demo.events.metrics.EventMetrics.Stage;
+import com.example.demo.events.partitioning.EventKeyStrategy;
+import com.example.demo.events.partitioning.PartitionSkewMetrics;
 import com.example.demo.events.transport.EventMappers;
+import com.example.demo.events.transport.EventOrigin;
+import com.example.demo.events.transport.EventRecordHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.support.MessageBuilder;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Kafka事件发布器，用于将事件发布到Kafka
+ * <p>
+ * 发送是非阻塞的：凑批交给生产者的 linger.ms / batch.size / compression.type（按 profile 配置），
+ * 完成回调在生产者 I/O 线程上记录失败与指标。未确认的发送数不超过 {@code app.producer.max-in-flight}，
+ * 达到上限时发送线程最多等待 {@code app.producer.in-flight-timeout}，避免突发流量把生产者缓冲区撑满；
+ * 超时后返回以 {@link TimeoutException} 异常完成的 future，Broker 停滞时不会无限挂住请求线程。
+ * 领域事件的记录键由 {@link EventKeyStrategy} 给出，同键事件落在同一分区；
+ * type、schemaId、id、correlationId 同时写成记录头（{@link EventRecordHeaders}），消费端据此在反序列化前过滤。
+ * 领域事件直接作为记录值交给序列化器，不再转换为 DomainEventMessage 或包装成 Spring Message。
+ * 发送前已在本地分发过的事件（{@code dispatchedLocally=true}）带来源头（{@link EventOrigin}），
+ * 本实例消费到这些记录时可在反序列化前跳过；只发往 Kafka 的事件不带来源头，照常回到本实例的监听器。
  */
 @Component
 public class KafkaEventPublisher {
 
+    private static final Logger log = LoggerFactory.getLogger(KafkaEventPublisher.class);
+
     public static final String HEADER_SOURCE = "x-source";
     public static final String SOURCE_KAFKA = "kafka";
     public static final String SOURCE_APP = "app";
+    private static final byte[] SOURCE_APP_BYTES = EventRecordHeaders.encode(SOURCE_APP);
+
+    private static final CompletableFuture<SendResult<String, Object>> SKIPPED = CompletableFuture.completedFuture(null);
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final String topic;
+    private final EventKeyStrategy keyStrategy;
+    private final PartitionSkewMetrics partitionMetrics;
+    private final EventOrigin origin;
+    private final EventMetrics metrics;
+    private final int maxInFlight;
+    private final long inFlightTimeoutNanos;
+    private final Semaphore inFlight;
+    private final Timer batchLatency;
+    private final DistributionSummary batchSize;
+    private final Counter sendFailures;
 
     public KafkaEventPublisher(
             KafkaTemplate<String, Object> kafkaTemplate,
-            @Value("${app.topics.order-events}") String topic) {
+            @Value("${app.topics.order-events}") String topic,
+            @Value("${app.producer.max-in-flight:10000}") int maxInFlight,
+            @Value("${app.producer.in-flight-timeout:5s}") Duration inFlightTimeout,
+            EventKeyStrategy keyStrategy,
+            PartitionSkewMetrics partitionMetrics,
+            EventOrigin origin,
+            EventMetrics metrics,
+            MeterRegistry meterRegistry) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("app.producer.max-in-flight must be > 0");
+        }
         this.kafkaTemplate = kafkaTemplate;
         this.topic = topic;
+        this.keyStrategy = keyStrategy;
+        this.partitionMetrics = partitionMetrics;
+        this.origin = origin;
+        this.metrics = metrics;
+        this.maxInFlight = maxInFlight;
+        this.inFlightTimeoutNanos = inFlightTimeout.toNanos();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.batchLatency = Timer.builder("domain.events.publish.batch.latency")
+                .description("从批次首条发送到整批确认的耗时")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("domain.events.publish.batch.size")
+                .description("单次 publishAll 实际发送的事件数")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("domain.events.publish.failures")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        Gauge.builder("domain.events.publish.in-flight", this, KafkaEventPublisher::inFlight)
+                .description("已发送未确认的事件数")
+                .tag("topic", topic)
+                .register(meterRegistry);
     }
 
     /**
-     * 将事件发布到Kafka
+     * 将事件发布到Kafka，事件尚未在本地分发
      *
      * @param event 要发布的事件
+     * @return Broker 确认后完成的 future；来自 Kafka 的事件不重复发布，返回已完成的 future（结果为 null）
      */
-    public void publishEvent(Object event) {
+    public CompletableFuture<SendResult<String, Object>> publishEvent(Object event) {
+        return publishEvent(event, false);
+    }
+
+    /**
+     * 将事件发布到Kafka
+     *
+     * @param event             要发布的事件
+     * @param dispatchedLocally 事件是否已在本地分发；为 true 时写入来源头，本实例消费时跳过
+     * @return Broker 确认后完成的 future；来自 Kafka 的事件不重复发布，返回已完成的 future（结果为 null）
+     */
+    public CompletableFuture<SendResult<String, Object>> publishEvent(Object event, boolean dispatchedLocally) {
         // 如果事件来自Kafka，则不重复发布
         if (EventHeaders.isFromKafka(event)) {
-            return;
+            return SKIPPED;
+        }
+        return send(event, dispatchedLocally);
+    }
+
+    /**
+     * 批量发布事件到Kafka，事件尚未在本地分发
+     *
+     * @param events 要发布的事件，来自 Kafka 的事件会被跳过
+     * @return 整批确认后完成的 future
+     */
+    public CompletableFuture<Void> publishAll(Collection<?> events) {
+        return publishAll(events, false);
+    }
+
+    /**
+     * 批量发布事件到Kafka。
+     * <p>
+     * 逐条交给生产者后立即返回，由生产者按 linger.ms / batch.size 合并成请求；整批确认后记录一次批次延迟。
+     * 任一事件发送失败时返回的 future 异常完成，其余事件照常发送。
+     *
+     * @param events            要发布的事件，来自 Kafka 的事件会被跳过
+     * @param dispatchedLocally 事件是否已在本地分发；为 true 时写入来源头，本实例消费时跳过
+     * @return 整批确认后完成的 future
+     */
+    public CompletableFuture<Void> publishAll(Collection<?> events, boolean dispatchedLocally) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[events.size()];
+        int sent = 0;
+        for (Object event : events) {
+            if (!EventHeaders.isFromKafka(event)) {
+                futures[sent++] = send(event, dispatchedLocally);
+            }
         }
+        if (sent == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int count = sent;
+        CompletableFuture<Void> all = CompletableFuture.allOf(
+                (count == futures.length) ? futures : Arrays.copyOf(futures, count));
+        all.whenComplete((ignored, error) -> {
+            batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(count);
+        });
+        return all;
+    }
+
+    /**
+     * 当前已发送未确认的事件数
+     */
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
 
-        Object payloadToSend = event;
-        // 如果是领域事件，转换为传输消息
+    private CompletableFuture<SendResult<String, Object>> send(Object event, boolean dispatchedLocally) {
+        String key = null;
+        String type = null;
+        String schemaId = null;
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(HEADER_SOURCE, SOURCE_APP_BYTES);
+        if (dispatchedLocally) {
+            origin.stamp(headers);
+        }
+        // 领域事件本身即为记录值，由序列化器直接写出；这里只确定契约与分区键
         if (event instanceof BaseDomainEvent<?> domainEvent) {
-            payloadToSend = EventMappers.toMessage(domainEvent);
+            long mapStart = metrics.start();
+            type = domainEvent.getType();
+            schemaId = EventMappers.schemaIdOf(domainEvent);
+            metrics.record(Stage.MAP, Source.APP, type, schemaId, mapStart);
+            key = keyStrategy.keyOf(domainEvent);
+            // 以原始字节写入，消费端可直接读取
+            addHeader(headers, EventRecordHeaders.TYPE, type);
+            addHeader(headers, EventRecordHeaders.SCHEMA_ID, schemaId);
+            addHeader(headers, EventRecordHeaders.ID, domainEvent.getId());
+            addHeader(headers, EventRecordHeaders.CORRELATION_ID, domainEvent.getCorrelationId());
         }
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, null, key, event, headers);
 
-        // 构建消息并发送到Kafka
-        var msg = MessageBuilder.withPayload(payloadToSend)
-                .setHeader(HEADER_SOURCE, SOURCE_APP)
-                .setHeader(org.springframework.kafka.support.KafkaHeaders.TOPIC, topic)
-                .build();
+        try {
+            if (!inFlight.tryAcquire(inFlightTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                sendFailures.increment();
+                TimeoutException timeout = new TimeoutException("Timed out waiting for an in-flight permit after "
+                        + Duration.ofNanos(inFlightTimeoutNanos) + ": " + describe(event));
+                log.error("Failed to publish event to Kafka: topic={}, event={}", topic, describe(event), timeout);
+                return CompletableFuture.failedFuture(timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendFailures.increment();
+            return CompletableFuture.failedFuture(new InterruptException(e));
+        }
+        long sendStart = metrics.start();
+        String sentType = type;
+        String sentSchemaId = schemaId;
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            // 序列化失败、缓冲区等待超时等同步异常不会进入回调，这里归还许可
+            inFlight.release();
+            sendFailures.increment();
+            throw e;
+        }
+        // 回调运行在生产者 I/O 线程上，只做计数和日志
+        return future.whenComplete((result, error) -> {
+            inFlight.release();
+            metrics.record(Stage.SEND_ACK, Source.APP, sentType, sentSchemaId, sendStart);
+            if (error != null) {
+                sendFailures.increment();
+                log.error("Failed to publish event to Kafka: topic={}, event={}", topic, describe(event), error);
+            } else {
+                partitionMetrics.record(result.getRecordMetadata().partition());
+            }
+        });
+    }
 
-        kafkaTemplate.send(msg);
+    private static void addHeader(RecordHeaders headers, String name, String value) {
+        if (value != null) {
+            headers.add(name, EventRecordHeaders.encode(value));
+        }
+    }
+
+    private static String describe(Object event) {
+        if (event instanceof BaseDomainEvent<?> domainEvent) {
+            return domainEvent.getType() + "#" + domainEvent.getId();
+        }
+        return event.getClass().getSimpleName();
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,31 @@
 package com.example.demo.events.publisher;
 
 import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventBatch;
 import com.example.demo.events.domain.EventHeaders;
-import com.example.demo.events.transport.EventMappers;
+import com.example.demo.events.routing.DomainEventRouter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 /**
- * 本地事件发布器，用于在应用内部发布事件
+ * 本地事件发布器，用于在应用内部发布事件。
+ * 领域事件经 {@link DomainEventRouter} 的预计算路由表直接分发给 @DomainEventListener；
+ * 其他事件（以及开启 app.dispatch.publish-to-spring 时的领域事件）仍走 Spring 事件机制。
  */
 @Component
 public class LocalEventPublisher {
 
     private final ApplicationEventPublisher applicationEventPublisher;
+    private final DomainEventRouter domainEventRouter;
+    private final boolean publishDomainEventsToSpring;
 
-    public LocalEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+    public LocalEventPublisher(ApplicationEventPublisher applicationEventPublisher,
+                               DomainEventRouter domainEventRouter,
+                               @Value("${app.dispatch.publish-to-spring:false}") boolean publishDomainEventsToSpring) {
         this.applicationEventPublisher = applicationEventPublisher;
+        this.domainEventRouter = domainEventRouter;
+        this.publishDomainEventsToSpring = publishDomainEventsToSpring;
     }
 
     /**
@@ -26,6 +36,31 @@ public class LocalEventPublisher {
     public void publishEvent(Object event) {
         // 解包来自 Kafka 的包装器，确保发布的是真正的领域事件类型
         Object toPublish = EventHeaders.unwrap(event);
-        applicationEventPublisher.publishEvent(toPublish);
+        if (toPublish instanceof BaseDomainEvent<?> domainEvent) {
+            publishDomainEvent(domainEvent);
+        } else {
+            applicationEventPublisher.publishEvent(toPublish);
+        }
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量发布本地事件：先逐条分发给普通监听器，再把整批作为一个 {@link DomainEventBatch} 发布一次，
+     * 供需要批量处理的监听器使用
+     *
+     * @param batch 要发布的事件批次
+     */
+    public void publishBatch(DomainEventBatch batch) {
+        for (BaseDomainEvent<?> event : batch.events()) {
+            publishDomainEvent(event);
+        }
+        applicationEventPublisher.publishEvent(batch);
+    }
+
+    private void publishDomainEvent(BaseDomainEvent<?> event) {
+        domainEventRouter.route(event);
+        // 兼容仍使用 @EventListener 监听领域事件的代码，代价是每个事件一次泛型类型解析
+        if (publishDomainEventsToSpring) {
+            applicationEventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.events.publisher;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.support.SendResult;
+
+/**
+ * 异步发布的结果
+ *
+ * @param eventId   领域事件 ID，非领域事件为 null
+ * @param status    发布状态
+ * @param topic     写入的 topic，仅 {@link Status#SENT} 时有值
+ * @param partition 写入的分区，仅 {@link Status#SENT} 时有值，否则为 -1
+ * @param offset    写入的位点，仅 {@link Status#SENT} 时有值，否则为 -1
+ */
+public record PublishResult(String eventId, Status status, String topic, int partition, long offset) {
+
+    /**
+     * 发布状态
+     */
+    public enum Status {
+        /**
+         * 已被 Broker 确认
+         */
+        SENT,
+        /**
+         * 已落入本地发件箱，由中继稍后转发
+         */
+        STORED,
+        /**
+         * 来自 Kafka 的事件，不重复发布
+         */
+        SKIPPED
+    }
+
+    static PublishResult sent(String eventId, SendResult<String, Object> result) {
+        RecordMetadata metadata = result.getRecordMetadata();
+        return new PublishResult(eventId, Status.SENT, metadata.topic(), metadata.partition(), metadata.offset());
+    }
+
+    static PublishResult stored(String eventId) {
+        return new PublishResult(eventId, Status.STORED, null, -1, -1L);
+    }
+
+    static PublishResult skipped(String eventId) {
+        return new PublishResult(eventId, Status.SKIPPED, null, -1, -1L);
+    }
+}
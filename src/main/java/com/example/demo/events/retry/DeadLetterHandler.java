@@ -0,0 +1,62 @@
+package com.example.demo.events.retry;
+
+import com.example.demo.events.transport.EventRecordHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 死信主题的监听方法：记录日志与计数后提交位点，记录本身留在死信主题中，由 {@link DeadLetterReplayService} 按需回放。
+ */
+public class DeadLetterHandler {
+
+    public static final String BEAN_NAME = "inboundDeadLetterHandler";
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterHandler.class);
+
+    private final InboundRetryMetrics metrics;
+
+    public DeadLetterHandler(InboundRetryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 处理一条死信记录
+     *
+     * @param consumerRecord 死信记录，消息体无法反序列化时为 null
+     */
+    public void onDeadLetter(ConsumerRecord<String, Object> consumerRecord) {
+        metrics.deadLettered();
+        var headers = consumerRecord.headers();
+        log.error("Event dead-lettered: type={}, id={}, from={}-{}@{}, dlt={}-{}@{}, exception={}: {}",
+                EventRecordHeaders.read(headers, EventRecordHeaders.TYPE),
+                EventRecordHeaders.read(headers, EventRecordHeaders.ID),
+                EventRecordHeaders.read(headers, KafkaHeaders.DLT_ORIGINAL_TOPIC),
+                partitionOf(consumerRecord, KafkaHeaders.DLT_ORIGINAL_PARTITION),
+                offsetOf(consumerRecord, KafkaHeaders.DLT_ORIGINAL_OFFSET),
+                consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset(),
+                EventRecordHeaders.read(headers, KafkaHeaders.DLT_EXCEPTION_FQCN),
+                EventRecordHeaders.read(headers, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    }
+
+    /**
+     * 死信转发写入的原始分区为 4 字节大端整数
+     */
+    private static Object partitionOf(ConsumerRecord<?, ?> consumerRecord, String name) {
+        var header = consumerRecord.headers().lastHeader(name);
+        return (header != null && header.value().length == Integer.BYTES)
+                ? ByteBuffer.wrap(header.value()).getInt() : "?";
+    }
+
+    /**
+     * 死信转发写入的原始位点为 8 字节大端整数
+     */
+    private static Object offsetOf(ConsumerRecord<?, ?> consumerRecord, String name) {
+        var header = consumerRecord.headers().lastHeader(name);
+        return (header != null && header.value().length == Long.BYTES)
+                ? ByteBuffer.wrap(header.value()).getLong() : "?";
+    }
+}
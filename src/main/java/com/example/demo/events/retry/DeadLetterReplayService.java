@@ -0,0 +1,192 @@
+package com.example.demo.events.retry;
+
+import com.example.demo.events.transport.EventRecordHeaders;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 死信回放：把死信主题中的记录原样写回主题，重新走完整的消费与重试流程。
+ * <p>
+ * 以独立的消费者组读取死信主题，每批写回并确认后才提交位点，多次调用依次向后推进，不重复回放；
+ * 每次只回放调用开始时已存在的记录，回放后再次失败的记录不会在同一次调用中被重复读取。
+ * 消息体按原始字节写回，不经过反序列化；重试与死信转发附加的头被移除，来源头（{@value EventRecordHeaders#ORIGIN}）也被移除，
+ * 发出该事件的实例同样会处理回放的记录。回放来源写入 {@value #HEADER_REPLAYED_FROM} 头。
+ */
+public class DeadLetterReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    public static final String HEADER_REPLAYED_FROM = "x-replayed-from";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int MAX_EMPTY_POLLS = 3;
+
+    // 重试与死信转发附加的头
+    private static final String[] STRIPPED_HEADER_PREFIXES = {"kafka_dlt-", "kafka_exception-", "retry_topic-"};
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final InboundRetryMetrics metrics;
+    private final String topic;
+    private final String deadLetterTopic;
+    private final String groupId;
+    private final Duration sendTimeout;
+
+    public DeadLetterReplayService(ConsumerFactory<?, ?> consumerFactory,
+                                   KafkaTemplate<String, Object> kafkaTemplate,
+                                   InboundRetryMetrics metrics,
+                                   String topic,
+                                   String deadLetterTopic,
+                                   String groupId,
+                                   Duration sendTimeout) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.metrics = metrics;
+        this.topic = topic;
+        this.deadLetterTopic = deadLetterTopic;
+        Object consumerGroup = consumerFactory.getConfigurationProperties().get(ConsumerConfig.GROUP_ID_CONFIG);
+        this.groupId = (groupId == null || groupId.isBlank()) ? consumerGroup + "-dlt-replay" : groupId;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * 回放结果
+     *
+     * @param replayed  本次写回主题的记录数
+     * @param remaining 调用开始时已存在、尚未回放的记录数
+     */
+    public record ReplayResult(int replayed, long remaining) {
+    }
+
+    /**
+     * 从上次回放的位置起，把死信记录写回主题
+     *
+     * @param maxRecords 本次最多回放的记录数
+     * @return 回放结果
+     */
+    public synchronized ReplayResult replay(int maxRecords) {
+        if (maxRecords <= 0) {
+            throw new IllegalArgumentException("maxRecords must be > 0");
+        }
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(maxRecords, 500));
+        try (Consumer<String, byte[]> consumer =
+                     new KafkaConsumer<>(props, new StringDeserializer(), new ByteArrayDeserializer())) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return new ReplayResult(0, 0);
+            }
+            List<TopicPartition> partitions = new ArrayList<>(partitionInfos.size());
+            for (PartitionInfo info : partitionInfos) {
+                partitions.add(new TopicPartition(deadLetterTopic, info.partition()));
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> next = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                next.put(partition, consumer.position(partition));
+            }
+
+            int replayed = 0;
+            int emptyPolls = 0;
+            while (replayed < maxRecords && remaining(next, endOffsets) > 0 && emptyPolls < MAX_EMPTY_POLLS) {
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> consumerRecord : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+                    if (replayed >= maxRecords || consumerRecord.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    sends.add(kafkaTemplate.send(new ProducerRecord<String, Object>(topic, null, consumerRecord.key(),
+                            consumerRecord.value(), replayHeaders(consumerRecord))));
+                    commits.put(partition, new OffsetAndMetadata(consumerRecord.offset() + 1));
+                    next.put(partition, consumerRecord.offset() + 1);
+                    replayed++;
+                }
+                if (sends.isEmpty()) {
+                    emptyPolls++;
+                    continue;
+                }
+                emptyPolls = 0;
+                awaitSends(sends);
+                consumer.commitSync(commits);
+                metrics.replayed(sends.size());
+            }
+            long remaining = remaining(next, endOffsets);
+            log.info("Replayed {} dead-lettered events from {} to {}, {} remaining", replayed, deadLetterTopic, topic, remaining);
+            return new ReplayResult(replayed, remaining);
+        }
+    }
+
+    private RecordHeaders replayHeaders(ConsumerRecord<String, byte[]> consumerRecord) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : consumerRecord.headers()) {
+            if (!isStripped(header.key())) {
+                headers.add(header);
+            }
+        }
+        headers.add(HEADER_REPLAYED_FROM, EventRecordHeaders.encode(
+                consumerRecord.topic() + "-" + consumerRecord.partition() + "@" + consumerRecord.offset()));
+        return headers;
+    }
+
+    private static boolean isStripped(String key) {
+        if (key.equals(EventRecordHeaders.ORIGIN)) {
+            return true;
+        }
+        for (String prefix : STRIPPED_HEADER_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitSends(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture<?>[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead-lettered events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // 不提交位点，下次回放从本批开始；已写回的记录由入站幂等过滤去重
+            throw new IllegalStateException("Failed to replay dead-lettered events to " + topic, e);
+        }
+    }
+
+    private static long remaining(Map<TopicPartition, Long> next, Map<TopicPartition, Long> endOffsets) {
+        long remaining = 0;
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            remaining += Math.max(0, entry.getValue() - next.get(entry.getKey()));
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.events.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+
+import java.time.Duration;
+
+/**
+ * 入站非阻塞重试配置，逐条消费模式（{@code app.consumer.mode=record}）下 {@code app.consumer.retry.enabled=true} 时启用。
+ * <p>
+ * 处理失败的记录转发到分级重试主题 {@code <topic>-retry-0..n}，各级延迟按指数递增，由独立的监听容器在到期后重新处理；
+ * 主题分区不等待重试，继续按原速消费。重试耗尽或遇到不可重试的异常（反序列化失败等）时转发到死信主题
+ * {@code <topic>-dlt}，保留原始记录头并附带异常信息。重试会打破同键事件的先后顺序。
+ */
+@Configuration
+@EnableKafkaRetryTopic
+@ConditionalOnExpression(InboundRetryConfiguration.ENABLED)
+public class InboundRetryConfiguration {
+
+    /**
+     * 启用条件，供依赖重试主题的其他组件共用
+     */
+    public static final String ENABLED =
+            "${app.consumer.retry.enabled:true} and '${app.consumer.mode:record}' == 'record'";
+
+    static final String RETRY_SUFFIX = "-retry";
+    /**
+     * 死信主题后缀，按键保序并行模式的死信转发共用
+     */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    /**
+     * 主题的分级重试与死信配置
+     */
+    @Bean
+    public RetryTopicConfiguration inboundRetryTopics(KafkaTemplate<String, Object> kafkaTemplate,
+                                                      @Value("${app.topics.order-events}") String topic,
+                                                      @Value("${app.consumer.retry.attempts:4}") int attempts,
+                                                      @Value("${app.consumer.retry.initial-delay:1s}") Duration initialDelay,
+                                                      @Value("${app.consumer.retry.multiplier:5.0}") double multiplier,
+                                                      @Value("${app.consumer.retry.max-delay:5m}") Duration maxDelay,
+                                                      @Value("${app.consumer.retry.auto-create-topics:true}") boolean autoCreateTopics,
+                                                      @Value("${app.consumer.retry.partitions:-1}") int partitions,
+                                                      @Value("${app.consumer.retry.replication-factor:-1}") short replicationFactor) {
+        if (attempts < 2) {
+            throw new IllegalArgumentException("app.consumer.retry.attempts must be >= 2");
+        }
+        return RetryTopicConfigurationBuilder.newInstance()
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelay.toMillis(), multiplier, maxDelay.toMillis())
+                .includeTopic(topic)
+                .retryTopicSuffix(RETRY_SUFFIX)
+                .dltSuffix(DLT_SUFFIX)
+                .setTopicSuffixingStrategy(TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+                .autoCreateTopics(autoCreateTopics, partitions, replicationFactor)
+                .dltHandlerMethod(DeadLetterHandler.BEAN_NAME, "onDeadLetter")
+                .create(kafkaTemplate);
+    }
+
+    /**
+     * 各级重试与死信计数Bean
+     */
+    @Bean
+    public InboundRetryMetrics inboundRetryMetrics(@Value("${app.topics.order-events}") String topic,
+                                                   MeterRegistry meterRegistry) {
+        return new InboundRetryMetrics(topic, meterRegistry);
+    }
+
+    /**
+     * 死信处理Bean
+     */
+    @Bean(DeadLetterHandler.BEAN_NAME)
+    public DeadLetterHandler deadLetterHandler(InboundRetryMetrics inboundRetryMetrics) {
+        return new DeadLetterHandler(inboundRetryMetrics);
+    }
+
+    /**
+     * 死信回放服务Bean
+     */
+    @Bean
+    public DeadLetterReplayService deadLetterReplayService(ConsumerFactory<?, ?> consumerFactory,
+                                                           KafkaTemplate<String, Object> kafkaTemplate,
+                                                           InboundRetryMetrics inboundRetryMetrics,
+                                                           @Value("${app.topics.order-events}") String topic,
+                                                           @Value("${app.consumer.retry.replay.group-id:}") String groupId,
+                                                           @Value("${app.consumer.retry.replay.send-timeout:30s}") Duration sendTimeout) {
+        return new DeadLetterReplayService(consumerFactory, kafkaTemplate, inboundRetryMetrics, topic,
+                topic + DLT_SUFFIX, groupId, sendTimeout);
+    }
+}
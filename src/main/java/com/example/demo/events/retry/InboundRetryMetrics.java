@@ -0,0 +1,78 @@
+package com.example.demo.events.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各级重试与死信的计数。
+ * <p>
+ * 重试级别以主题后缀作为 {@code tier} 标签（retry-0、retry-1 …）：
+ * {@code domain.events.retry.attempts} 为各级收到的记录数，{@code domain.events.retry.recovered} 为在该级处理成功的记录数；
+ * {@code domain.events.retry.dead-lettered} 为进入死信主题的记录数，{@code domain.events.retry.replayed} 为回放回主题的死信数。
+ */
+public class InboundRetryMetrics {
+
+    private final String topic;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> attempts = new ConcurrentHashMap<>();
+    private final Map<String, Counter> recovered = new ConcurrentHashMap<>();
+    private final Counter deadLettered;
+    private final Counter replayed;
+
+    public InboundRetryMetrics(String topic, MeterRegistry meterRegistry) {
+        this.topic = topic;
+        this.meterRegistry = meterRegistry;
+        this.deadLettered = Counter.builder("domain.events.retry.dead-lettered")
+                .description("重试耗尽或不可重试、进入死信主题的记录数")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        this.replayed = Counter.builder("domain.events.retry.replayed")
+                .description("从死信主题回放回主题的记录数")
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param receivedTopic 记录所在主题
+     * @return 是否为重试主题（主题本身返回 false）
+     */
+    public boolean isRetryTopic(String receivedTopic) {
+        return receivedTopic != null && !receivedTopic.equals(topic) && receivedTopic.startsWith(topic + "-");
+    }
+
+    /**
+     * 记录一次重试处理
+     *
+     * @param retryTopic 重试主题
+     */
+    public void attempted(String retryTopic) {
+        attempts.computeIfAbsent(retryTopic, t -> counter("domain.events.retry.attempts", t)).increment();
+    }
+
+    /**
+     * 记录一次重试成功
+     *
+     * @param retryTopic 重试主题
+     */
+    public void recovered(String retryTopic) {
+        recovered.computeIfAbsent(retryTopic, t -> counter("domain.events.retry.recovered", t)).increment();
+    }
+
+    void deadLettered() {
+        deadLettered.increment();
+    }
+
+    void replayed(int count) {
+        replayed.increment(count);
+    }
+
+    private Counter counter(String name, String retryTopic) {
+        return Counter.builder(name)
+                .tag("topic", topic)
+                .tag("tier", retryTopic.substring(topic.length() + 1))
+                .register(meterRegistry);
+    }
+}
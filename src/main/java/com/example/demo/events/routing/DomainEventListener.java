@@ -0,0 +1,40 @@
+package com.example.demo.events.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明一个由 {@link DomainEventRouter} 直接分发的领域事件监听方法。
+ * <p>
+ * 方法只能有一个参数，类型为 {@code BaseDomainEvent<T>}，T 决定按负载类型匹配的范围（通配符匹配所有负载）。
+ * 路由表在启动时根据方法签名解析一次，之后按 (事件类型, 负载类型) 缓存，分发时不再做泛型类型解析。
+ * <pre>
+ * &#64;DomainEventListener(condition = HighValueOrderCondition.class, executor = "highValueOrderListenerExecutor")
+ * public void onHighValueOrder(BaseDomainEvent&lt;OrderCreatedPayload&gt; event) { ... }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DomainEventListener {
+
+    /**
+     * 只接收这些业务事件类型（BaseDomainEvent#type），为空表示不按类型过滤
+     */
+    String[] types() default {};
+
+    /**
+     * 分发前由路由器求值的条件，不满足时不会为该监听器分配任务；
+     * 为容器中的 Bean 时使用该 Bean，否则通过无参构造器创建一次
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends EventCondition> condition() default EventCondition.class;
+
+    /**
+     * 执行监听方法的 Executor Bean 名称，为空表示在发布线程上同步执行
+     */
+    String executor() default "";
+}
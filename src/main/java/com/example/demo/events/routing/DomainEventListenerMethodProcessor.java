@@ -0,0 +1,129 @@
+package com.example.demo.events.routing;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * 在所有单例初始化完成后扫描 {@link DomainEventListener} 方法，解析一次签名、条件与执行器并注册到路由器。
+ * <p>
+ * 领域事件默认不再发布到 Spring 事件机制（{@code app.dispatch.publish-to-spring=false}），
+ * 此时仍以 {@code @EventListener} 监听 {@link BaseDomainEvent} 的方法收不到任何事件，启动时直接失败并列出这些方法。
+ */
+@Component
+public class DomainEventListenerMethodProcessor implements SmartInitializingSingleton, ApplicationContextAware {
+
+    private final DomainEventRouter domainEventRouter;
+    private final boolean publishDomainEventsToSpring;
+    private ApplicationContext applicationContext;
+
+    public DomainEventListenerMethodProcessor(DomainEventRouter domainEventRouter,
+                                              @Value("${app.dispatch.publish-to-spring:false}") boolean publishDomainEventsToSpring) {
+        this.domainEventRouter = domainEventRouter;
+        this.publishDomainEventsToSpring = publishDomainEventsToSpring;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> springListeners = new ArrayList<>();
+        for (String beanName : applicationContext.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            if (!publishDomainEventsToSpring) {
+                collectDomainEventSpringListeners(beanName, userClass, springListeners);
+            }
+            if (!AnnotationUtils.isCandidateClass(userClass, DomainEventListener.class)) {
+                continue;
+            }
+            Map<Method, DomainEventListener> methods = MethodIntrospector.selectMethods(userClass,
+                    (MethodIntrospector.MetadataLookup<DomainEventListener>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, DomainEventListener.class));
+            if (methods.isEmpty()) {
+                continue;
+            }
+            Object bean = applicationContext.getBean(beanName);
+            methods.forEach((method, annotation) -> domainEventRouter.register(
+                    createListener(beanName, bean, AopUtils.selectInvocableMethod(method, bean.getClass()),
+                            annotation)));
+        }
+        if (!springListeners.isEmpty()) {
+            throw new IllegalStateException("@EventListener methods for BaseDomainEvent receive no events while "
+                    + "app.dispatch.publish-to-spring=false; migrate them to @DomainEventListener or set "
+                    + "app.dispatch.publish-to-spring=true: " + springListeners);
+        }
+    }
+
+    /**
+     * 收集以 {@code @EventListener} 监听领域事件的方法：参数或 classes 属性为 BaseDomainEvent 及其子类、父类（Object 除外）
+     */
+    private static void collectDomainEventSpringListeners(String beanName, Class<?> userClass, List<String> result) {
+        if (!AnnotationUtils.isCandidateClass(userClass, EventListener.class)) {
+            return;
+        }
+        Map<Method, EventListener> methods = MethodIntrospector.selectMethods(userClass,
+                (MethodIntrospector.MetadataLookup<EventListener>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, EventListener.class));
+        methods.forEach((method, annotation) -> {
+            Class<?>[] eventTypes = (annotation.classes().length > 0) ? annotation.classes() : method.getParameterTypes();
+            for (Class<?> eventType : eventTypes) {
+                if (BaseDomainEvent.class.isAssignableFrom(eventType)
+                        || (eventType != Object.class && eventType.isAssignableFrom(BaseDomainEvent.class))) {
+                    result.add(beanName + "#" + method.getName());
+                    return;
+                }
+            }
+        });
+    }
+
+    private RoutedListener createListener(String beanName, Object bean, Method method, DomainEventListener annotation) {
+        String name = beanName + "#" + method.getName();
+        if (method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(BaseDomainEvent.class)) {
+            throw new IllegalStateException("@DomainEventListener method must take a single BaseDomainEvent: " + name);
+        }
+        Class<?> payloadClass = ResolvableType.forMethodParameter(method, 0)
+                .as(BaseDomainEvent.class).getGeneric(0).resolve(Object.class);
+        Executor executor = annotation.executor().isEmpty()
+                ? null
+                : applicationContext.getBean(annotation.executor(), Executor.class);
+        return new RoutedListener(name, bean, method, payloadClass, Set.copyOf(Arrays.asList(annotation.types())),
+                resolveCondition(annotation), executor);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private EventCondition<?> resolveCondition(DomainEventListener annotation) {
+        Class<? extends EventCondition> conditionClass = annotation.condition();
+        if (conditionClass == EventCondition.class) {
+            return null;
+        }
+        EventCondition<?> condition = applicationContext.getBeanProvider(conditionClass).getIfAvailable();
+        return condition != null ? condition : BeanUtils.instantiateClass(conditionClass);
+    }
+}
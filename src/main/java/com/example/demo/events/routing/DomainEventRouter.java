@@ -0,0 +1,87 @@
+package com.example.demo.events.routing;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 领域事件路由器：按 (负载类型, 事件类型) 缓存匹配的监听器列表并直接分发，
+ * 绕过 Spring 事件多播器对每个事件的 ResolvableType 解析与逐个监听器匹配。
+ * <p>
+ * 某个组合第一次出现时遍历已注册监听器计算一次路由，之后只是两次 Map 查找。
+ * 注册新的监听器会清空路由缓存。
+ */
+@Component
+public class DomainEventRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainEventRouter.class);
+    private static final RoutedListener[] NO_LISTENERS = new RoutedListener[0];
+
+    private final List<RoutedListener> listeners = new CopyOnWriteArrayList<>();
+    // 负载类型 -> 事件类型 -> 匹配的监听器
+    private final Map<Class<?>, Map<String, RoutedListener[]>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * 注册监听器
+     *
+     * @param listener 监听器
+     */
+    public void register(RoutedListener listener) {
+        listeners.add(listener);
+        routes.clear();
+        log.debug("Registered domain event listener: {}", listener);
+    }
+
+    /**
+     * 把事件分发给所有匹配的监听器
+     *
+     * @param event 领域事件
+     */
+    public void route(BaseDomainEvent<?> event) {
+        for (RoutedListener listener : resolve(event.getType(), event.payloadType())) {
+            listener.dispatch(event);
+        }
+    }
+
+    /**
+     * @return 是否有监听器接收该 (事件类型, 负载类型) 组合
+     */
+    public boolean hasListeners(String type, Class<?> payloadClass) {
+        return resolve(type, payloadClass).length > 0;
+    }
+
+    /**
+     * @return 已注册的全部监听器
+     */
+    public List<RoutedListener> listeners() {
+        return List.copyOf(listeners);
+    }
+
+    private RoutedListener[] resolve(String type, Class<?> payloadClass) {
+        String typeKey = (type != null ? type : "");
+        Map<String, RoutedListener[]> byType = routes.get(payloadClass);
+        RoutedListener[] cached = (byType != null ? byType.get(typeKey) : null);
+        if (cached != null) {
+            return cached;
+        }
+        return routes.computeIfAbsent(payloadClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(typeKey, k -> match(type, payloadClass));
+    }
+
+    private RoutedListener[] match(String type, Class<?> payloadClass) {
+        List<RoutedListener> matched = new ArrayList<>();
+        for (RoutedListener listener : listeners) {
+            if (listener.accepts(type, payloadClass)) {
+                matched.add(listener);
+            }
+        }
+        return matched.isEmpty() ? NO_LISTENERS : matched.toArray(NO_LISTENERS);
+    }
+}
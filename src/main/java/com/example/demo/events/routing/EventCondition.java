@@ -0,0 +1,18 @@
+package com.example.demo.events.routing;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+
+/**
+ * 监听器的分发条件，由路由器在分配执行任务之前求值
+ *
+ * @param <T> 业务负载类型，与监听方法声明的负载类型一致
+ */
+@FunctionalInterface
+public interface EventCondition<T> {
+
+    /**
+     * @param event 领域事件
+     * @return 是否把事件分发给监听器
+     */
+    boolean matches(BaseDomainEvent<T> event);
+}
@@ -0,0 +1,110 @@
+package com.example.demo.events.routing;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * 路由表中的一个监听器：启动时解析好的负载类型、类型过滤、条件、执行器与绑定了目标 Bean 的方法句柄。
+ * <p>
+ * 同步监听器的异常抛给发布方；在执行器上运行的监听器没有调用方可以接收异常，在任务内以 ERROR 记录监听器名与事件 ID。
+ */
+public final class RoutedListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutedListener.class);
+
+    private final String name;
+    private final Class<?> payloadClass;
+    private final Set<String> types;
+    private final EventCondition<Object> condition;
+    private final Executor executor;
+    private final MethodHandle handle;
+
+    /**
+     * @param name         监听器名称，用于日志
+     * @param bean         监听器所在的 Bean
+     * @param method       监听方法，唯一参数为 BaseDomainEvent
+     * @param payloadClass 方法声明的负载类型，通配符时为 Object.class
+     * @param types        只接收的事件类型，为空表示不过滤
+     * @param condition    分发条件，可为 null
+     * @param executor     执行器，为 null 时同步执行
+     */
+    @SuppressWarnings("unchecked")
+    public RoutedListener(String name, Object bean, Method method, Class<?> payloadClass, Set<String> types,
+                          EventCondition<?> condition, Executor executor) {
+        this.name = name;
+        this.payloadClass = payloadClass;
+        this.types = Set.copyOf(types);
+        this.condition = (EventCondition<Object>) condition;
+        this.executor = executor;
+        try {
+            this.handle = MethodHandles.publicLookup().unreflect(method).bindTo(bean)
+                    .asType(MethodType.methodType(void.class, BaseDomainEvent.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Domain event listener must be public: " + name, e);
+        }
+    }
+
+    /**
+     * 路由表构建时调用，判断监听器是否接收该 (事件类型, 负载类型) 组合
+     */
+    boolean accepts(String type, Class<?> eventPayloadClass) {
+        return (types.isEmpty() || (type != null && types.contains(type))) && payloadClass.isAssignableFrom(eventPayloadClass);
+    }
+
+    /**
+     * 求值条件并分发：条件不满足时直接返回，不分配任务
+     */
+    @SuppressWarnings("unchecked")
+    void dispatch(BaseDomainEvent<?> event) {
+        if (condition != null && !condition.matches((BaseDomainEvent<Object>) event)) {
+            return;
+        }
+        if (executor == null) {
+            invoke(event);
+        } else {
+            executor.execute(() -> invokeAsync(event));
+        }
+    }
+
+    private void invokeAsync(BaseDomainEvent<?> event) {
+        try {
+            invoke(event);
+        } catch (RuntimeException e) {
+            log.error("Async domain event listener {} failed: eventId={}, type={}", name, event.getId(),
+                    event.getType(), e);
+        } catch (Error e) {
+            log.error("Async domain event listener {} failed: eventId={}, type={}", name, event.getId(),
+                    event.getType(), e);
+            throw e;
+        }
+    }
+
+    private void invoke(BaseDomainEvent<?> event) {
+        try {
+            handle.invokeExact(event);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e, "Domain event listener failed: " + name);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "RoutedListener[" + name + ", payload=" + payloadClass.getSimpleName()
+                + (types.isEmpty() ? "" : ", types=" + types) + "]";
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DomainEventMessage 的紧凑二进制编码，出站时也可直接从领域事件编码。
+ * <p>
+ * 信封字段按固定顺序写出，不重复字段名：UUID 形式的 id/correlationId 写为 16 字节，
+ * occurredAt 写为纪元秒 + 纳秒的变长整数，字符串为变长长度前缀 + UTF-8，属性值带 1 字节类型标记。
+ * payload 的解码方式由 schemaId 决定：本地登记的契约直接绑定到负载类型，其他契约保留为树结构供版本迁移；
+ * 延迟解码时 payload 保留为 {@link RawPayload}，重新编码时原样写回。
+ * 解码不信任输入：长度前缀与属性个数先按剩余字节校验再分配，格式错误一律抛出 {@link SerializationException}。
+ * <pre>
+ * version:u8 | id | type | schemaId | occurredAt | correlationId | attributes | payload
+ * </pre>
+ */
+public final class BinaryDomainEventCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    // 标识类字段（id、correlationId）的编码方式
+    private static final byte ID_NULL = 0;
+    private static final byte ID_UUID = 1;
+    private static final byte ID_STRING = 2;
+
+    // 属性值类型标记
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_TRUE = 2;
+    private static final byte VALUE_FALSE = 3;
+    private static final byte VALUE_INT = 4;
+    private static final byte VALUE_LONG = 5;
+    private static final byte VALUE_DOUBLE = 6;
+    private static final byte VALUE_JSON = 7;
+
+    private final ObjectMapper objectMapper;
+    private final PayloadReaders payloadReaders;
+
+    public BinaryDomainEventCodec(ObjectMapper objectMapper) {
+        this(objectMapper, new PayloadReaders(objectMapper));
+    }
+
+    BinaryDomainEventCodec(ObjectMapper objectMapper, PayloadReaders payloadReaders) {
+        this.objectMapper = objectMapper;
+        this.payloadReaders = payloadReaders;
+    }
+
+    /**
+     * 编码事件消息
+     *
+     * @param message 事件消息
+     * @return 二进制编码
+     */
+    public byte[] encode(DomainEventMessage message) {
+        return encode(message.id(), message.type(), message.schemaId(), message.occurredAt(), message.correlationId(),
+                message.attributes(), message.payload());
+    }
+
+    /**
+     * 直接从领域事件编码，结果与先转换为 {@link DomainEventMessage} 再编码相同
+     *
+     * @param event 领域事件
+     * @return 二进制编码
+     */
+    public byte[] encode(BaseDomainEvent<?> event) {
+        Object payload = EventMappers.wirePayloadOf(event);
+        return encode(event.getId(), event.getType(), EventMappers.schemaIdOf(event, payload), event.getOccurredAt(),
+                event.getCorrelationId(), event.getAttributes(), payload);
+    }
+
+    private byte[] encode(String id, String type, String schemaId, Instant occurredAt, String correlationId,
+                          Map<String, Object> attributes, Object payload) {
+        try {
+            Output out = new Output(128);
+            out.writeByte(FORMAT_VERSION);
+            writeIdentifier(out, id);
+            out.writeString(type);
+            out.writeString(schemaId);
+            out.writeVarLong(zigZag(occurredAt.getEpochSecond()));
+            out.writeVarLong(occurredAt.getNano());
+            writeIdentifier(out, correlationId);
+            writeAttributes(out, attributes);
+            // payload 为 null 时写长度 0，否则写 长度+1 与 JSON 字节
+            if (payload == null) {
+                out.writeVarLong(0);
+            } else if (payload instanceof RawPayload raw) {
+                out.writeBlock(raw.data(), raw.offset(), raw.length());
+            } else {
+                out.writeBlock(payloadReaders.write(payload));
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Can't encode DomainEventMessage " + id, e);
+        }
+    }
+
+    /**
+     * 解码事件消息
+     *
+     * @param data 二进制编码
+     * @return 事件消息
+     */
+    public DomainEventMessage decode(byte[] data) {
+        return decode(data, false);
+    }
+
+    /**
+     * 解码事件消息
+     *
+     * @param data        二进制编码
+     * @param lazyPayload 为 true 时 payload 不解析，保留为指向 data 的 {@link RawPayload}
+     * @return 事件消息
+     */
+    DomainEventMessage decode(byte[] data, boolean lazyPayload) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            byte version = in.get();
+            if (version != FORMAT_VERSION) {
+                throw new SerializationException("Unsupported binary event format version: " + version);
+            }
+            String id = readIdentifier(in);
+            String type = readString(in);
+            String schemaId = readString(in);
+            Instant occurredAt = Instant.ofEpochSecond(unZigZag(readVarLong(in)), readVarLong(in));
+            String correlationId = readIdentifier(in);
+            Map<String, Object> attributes = readAttributes(in);
+
+            Object payload = null;
+            int payloadLength = readLength(in);
+            if (payloadLength >= 0 && lazyPayload) {
+                payload = new RawPayload(data, in.position(), payloadLength, payloadReaders);
+            } else if (payloadLength >= 0) {
+                try (JsonParser parser = objectMapper.createParser(data, in.position(), payloadLength)) {
+                    parser.nextToken();
+                    payload = payloadReaders.read(parser, schemaId);
+                }
+            }
+            return new DomainEventMessage(id, type, schemaId, occurredAt, correlationId, attributes, payload);
+        } catch (IOException | BufferUnderflowException | DateTimeException | ArithmeticException e) {
+            throw new SerializationException("Can't decode binary DomainEventMessage", e);
+        }
+    }
+
+    private void writeAttributes(Output out, Map<String, Object> attributes) throws IOException {
+        if (attributes == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(attributes.size() + 1L);
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            out.writeString(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private Map<String, Object> readAttributes(ByteBuffer in) throws IOException {
+        long size = readVarLong(in) - 1;
+        if (size == -1) {
+            return null;
+        }
+        // 每个属性至少占 2 字节（键的长度前缀与值的类型标记），不信任长度前缀，先按剩余字节校验再分配
+        if (size < 0 || size > in.remaining() / 2) {
+            throw new SerializationException("Attribute count " + size + " exceeds remaining " + in.remaining() + " bytes");
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            attributes.put(readString(in), readValue(in));
+        }
+        return attributes;
+    }
+
+    private void writeValue(Output out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(VALUE_NULL);
+            case String s -> {
+                out.writeByte(VALUE_STRING);
+                out.writeString(s);
+            }
+            case Boolean b -> out.writeByte(b ? VALUE_TRUE : VALUE_FALSE);
+            case Integer i -> {
+                out.writeByte(VALUE_INT);
+                out.writeVarLong(zigZag(i));
+            }
+            case Long l -> {
+                out.writeByte(VALUE_LONG);
+                out.writeVarLong(zigZag(l));
+            }
+            case Double d -> {
+                out.writeByte(VALUE_DOUBLE);
+                out.writeLong(Double.doubleToRawLongBits(d));
+            }
+            default -> {
+                // 嵌套结构、BigDecimal 等其他类型退化为 JSON，解码结果与 JSON 线上格式一致
+                out.writeByte(VALUE_JSON);
+                out.writeBlock(objectMapper.writeValueAsBytes(value));
+            }
+        }
+    }
+
+    private Object readValue(ByteBuffer in) throws IOException {
+        byte tag = in.get();
+        return switch (tag) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> readString(in);
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_INT -> (int) unZigZag(readVarLong(in));
+            case VALUE_LONG -> unZigZag(readVarLong(in));
+            case VALUE_DOUBLE -> Double.longBitsToDouble(in.getLong());
+            case VALUE_JSON -> {
+                int length = readLength(in);
+                if (length < 0) {
+                    throw new SerializationException("Missing JSON attribute value");
+                }
+                Object value = objectMapper.readValue(in.array(), in.position(), length, Object.class);
+                in.position(in.position() + length);
+                yield value;
+            }
+            default -> throw new SerializationException("Unknown attribute value tag: " + tag);
+        };
+    }
+
+    private static void writeIdentifier(Output out, String value) {
+        if (value == null) {
+            out.writeByte(ID_NULL);
+            return;
+        }
+        long[] uuid = parseCanonicalUuid(value);
+        if (uuid != null) {
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid[0]);
+            out.writeLong(uuid[1]);
+        } else {
+            out.writeByte(ID_STRING);
+            out.writeString(value);
+        }
+    }
+
+    private static String readIdentifier(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case ID_NULL -> null;
+            case ID_UUID -> new UUID(in.getLong(), in.getLong()).toString();
+            case ID_STRING -> readString(in);
+            default -> throw new SerializationException("Unknown identifier tag: " + tag);
+        };
+    }
+
+    /**
+     * 仅识别 {@link UUID#toString()} 产生的小写规范格式，保证解码后字符串与原值完全一致
+     *
+     * @return [高 64 位, 低 64 位]；不是规范 UUID 时返回 null
+     */
+    private static long[] parseCanonicalUuid(String value) {
+        if (value.length() != 36) {
+            return null;
+        }
+        long msb = 0;
+        long lsb = 0;
+        int nibbles = 0;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return null;
+                continue;
+            }
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else {
+                return null;
+            }
+            if (nibbles < 16) {
+                msb = (msb << 4) | digit;
+            } else {
+                lsb = (lsb << 4) | digit;
+            }
+            nibbles++;
+        }
+        return new long[]{msb, lsb};
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readLength(in);
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * 读取 长度+1 前缀
+     *
+     * @return 字节长度；前缀为 0（null）时返回 -1
+     * @throws SerializationException 长度超出剩余字节
+     */
+    private static int readLength(ByteBuffer in) {
+        long length = readVarLong(in) - 1;
+        if (length < -1 || length > in.remaining()) {
+            throw new SerializationException("Length " + length + " exceeds remaining " + in.remaining() + " bytes");
+        }
+        return (int) length;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 可扩容的字节输出缓冲
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeBlock(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * 写入 长度+1 前缀与字节内容
+         */
+        void writeBlock(byte[] bytes) {
+            writeBlock(bytes, 0, bytes.length);
+        }
+
+        void writeBlock(byte[] bytes, int offset, int length) {
+            writeVarLong(length + 1L);
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+}
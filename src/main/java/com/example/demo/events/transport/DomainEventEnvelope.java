@@ -0,0 +1,48 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * 按 {@link com.example.demo.events.domain.DomainEventMessage} 的 JSON 格式直接写出领域事件。
+ * <p>
+ * 字段顺序与取值和 DomainEventMessage 的序列化结果一致（包括 null 字段），消费端无需区分；
+ * 字段直接取自领域事件，不复制信封与属性表。
+ */
+final class DomainEventEnvelope implements JsonSerializable {
+
+    private final BaseDomainEvent<?> event;
+    private final String schemaId;
+    private final Object payload;
+
+    DomainEventEnvelope(BaseDomainEvent<?> event, String schemaId, Object payload) {
+        this.event = event;
+        this.schemaId = schemaId;
+        this.payload = payload;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", event.getId());
+        gen.writeStringField("type", event.getType());
+        gen.writeStringField("schemaId", schemaId);
+        // 时间与属性值交给 ObjectMapper 的配置，与原来的输出保持一致
+        serializers.defaultSerializeField("occurredAt", event.getOccurredAt(), gen);
+        gen.writeStringField("correlationId", event.getCorrelationId());
+        serializers.defaultSerializeField("attributes", event.getAttributes(), gen);
+        serializers.defaultSerializeField("payload", payload, gen);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.domain.DomainEventMessage;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 按 schemaId 直接流式反序列化 {@link DomainEventMessage} 的 Kafka 反序列化器。
+ * <p>
+ * 先读出信封字段中的 schemaId，再把 payload 直接从字节流解析为 {@link EventPayloadRegistry#resolveClass}
+ * 返回的本地类型，省去 JSON → Map → JsonNode → Map → POJO 的多次对象图拷贝。
+ * 只有 schemaId 在本地未注册（例如需要做版本升级的其他版本负载）时，payload 才会解析为 {@link JsonNode}，
+ * 交由 {@link EventMappers#toDomainEvent} 做版本转换后再绑定类型。
+ * 记录头声明为二进制编码的消息交给 {@link BinaryDomainEventCodec} 解码。
+ * <p>
+ * 消费者配置 {@value #LAZY_PAYLOAD_CONFIG}=true 时只解码信封，对象/数组形式的 payload 跳过并保留为指向记录字节的
+ * {@link RawPayload}，映射为 {@link LazyDomainEvent} 后在首次 {@code getPayload()} 时才绑定类型。
+ * 此时负载格式错误不再在反序列化阶段暴露，而是在监听器读取负载时抛出 {@link IllegalArgumentException}。
+ * <p>
+ * 消费者配置 {@value InboundRecordFilter#CONFIG} 给出过滤器时，先按记录头判断，不需要的记录不解析消息体，
+ * 直接返回 null 并加上 {@value EventRecordHeaders#FILTERED} 头，由监听容器的记录过滤策略丢弃。
+ */
+public class DomainEventMessageDeserializer implements Deserializer<DomainEventMessage> {
+
+    /**
+     * 是否延迟解析 payload 的消费者配置项
+     */
+    public static final String LAZY_PAYLOAD_CONFIG = "app.payload.lazy";
+
+    private static final byte[] FILTERED_MARKER = new byte[0];
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader instantReader;
+    private final ObjectReader attributesReader;
+    private final PayloadReaders payloadReaders;
+    private final BinaryDomainEventCodec binaryCodec;
+    private boolean lazyPayload;
+    private InboundRecordFilter recordFilter;
+
+    public DomainEventMessageDeserializer() {
+        this(EventJson.mapper());
+    }
+
+    public DomainEventMessageDeserializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.instantReader = objectMapper.readerFor(Instant.class);
+        this.attributesReader = objectMapper.readerFor(
+                objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class));
+        this.payloadReaders = new PayloadReaders(objectMapper);
+        this.binaryCodec = new BinaryDomainEventCodec(objectMapper, payloadReaders);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object lazy = configs.get(LAZY_PAYLOAD_CONFIG);
+        if (lazy != null) {
+            this.lazyPayload = Boolean.parseBoolean(lazy.toString());
+        }
+        if (configs.get(InboundRecordFilter.CONFIG) instanceof InboundRecordFilter filter) {
+            this.recordFilter = filter;
+        }
+    }
+
+    /**
+     * 先按记录头做前置过滤，再按记录头 {@value EventWireFormat#HEADER} 选择解码方式，没有该头时按 JSON 解析
+     */
+    @Override
+    public DomainEventMessage deserialize(String topic, Headers headers, byte[] data) {
+        if (recordFilter != null && data != null && !recordFilter.accepts(headers)) {
+            headers.add(EventRecordHeaders.FILTERED, FILTERED_MARKER);
+            return null;
+        }
+        if (data != null && EventWireFormat.fromHeaders(headers) == EventWireFormat.BINARY) {
+            return binaryCodec.decode(data, lazyPayload);
+        }
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public DomainEventMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (JsonParser parser = objectMapper.createParser(data)) {
+            return readMessage(parser, data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize DomainEventMessage from topic " + topic, e);
+        }
+    }
+
+    private DomainEventMessage readMessage(JsonParser parser, byte[] data) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new SerializationException("DomainEventMessage must be a JSON object");
+        }
+
+        String id = null;
+        String type = null;
+        String schemaId = null;
+        Instant occurredAt = null;
+        String correlationId = null;
+        Map<String, Object> attributes = null;
+        Object payload = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "schemaId" -> schemaId = parser.getValueAsString();
+                case "occurredAt" -> occurredAt = instantReader.readValue(parser);
+                case "correlationId" -> correlationId = parser.getValueAsString();
+                case "attributes" -> attributes = attributesReader.readValue(parser);
+                case "payload" -> payload = lazyPayload
+                        ? payloadReaders.readLazily(parser, data, schemaId)
+                        : payloadReaders.read(parser, schemaId);
+                default -> parser.skipChildren();
+            }
+        }
+
+        // payload 先于 schemaId 出现时只能先读成树，这里补做一次类型绑定
+        if (payload instanceof JsonNode node) {
+            payload = payloadReaders.bind(node, schemaId);
+        }
+
+        return new DomainEventMessage(id, type, schemaId, occurredAt, correlationId, attributes, payload);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.domain.DomainEventMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * 出站事件的 Kafka 序列化器。
+ * <p>
+ * 按生产者配置 {@value EventWireFormat#CONFIG} 选择编码：二进制编码时写入记录头
+ * {@value EventWireFormat#HEADER}=binary；JSON 编码不写头，与此前 JsonSerializer 的输出保持兼容。
+ * 领域事件（{@link BaseDomainEvent}）直接从事件对象写出，格式与转换为 DomainEventMessage 后的编码相同，
+ * 发布端无需为每条事件再分配传输对象。byte[] 视为已编码的记录原样写出，其他对象始终按 JSON 编码。
+ */
+public class DomainEventMessageSerializer implements Serializer<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final BinaryDomainEventCodec binaryCodec;
+    private EventWireFormat wireFormat = EventWireFormat.JSON;
+
+    public DomainEventMessageSerializer() {
+        this(EventJson.mapper());
+    }
+
+    public DomainEventMessageSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.binaryCodec = new BinaryDomainEventCodec(objectMapper);
+    }
+
+    public DomainEventMessageSerializer(ObjectMapper objectMapper, EventWireFormat wireFormat) {
+        this(objectMapper);
+        this.wireFormat = wireFormat;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (configs.containsKey(EventWireFormat.CONFIG)) {
+            this.wireFormat = EventWireFormat.fromConfig(configs.get(EventWireFormat.CONFIG));
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] encoded) {
+            // 已编码的记录（死信转发的原始字节、死信回放）原样写出，沿用原记录的线上格式头
+            return encoded;
+        }
+        // 转发已消费的记录时会带上原记录的头，按本次实际编码重写
+        headers.remove(EventWireFormat.HEADER);
+        if (wireFormat == EventWireFormat.BINARY) {
+            if (data instanceof BaseDomainEvent<?> event) {
+                headers.add(EventWireFormat.HEADER, EventWireFormat.BINARY.headerValue());
+                return binaryCodec.encode(event);
+            }
+            if (data instanceof DomainEventMessage message) {
+                headers.add(EventWireFormat.HEADER, EventWireFormat.BINARY.headerValue());
+                return binaryCodec.encode(message);
+            }
+        }
+        return serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            if (data instanceof BaseDomainEvent<?> event) {
+                Object payload = EventMappers.wirePayloadOf(event);
+                return objectMapper.writeValueAsBytes(
+                        new DomainEventEnvelope(event, EventMappers.schemaIdOf(event, payload), payload));
+            }
+            return objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Can't serialize event for topic " + topic, e);
+        }
+    }
+}
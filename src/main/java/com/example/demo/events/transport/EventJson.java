@@ -0,0 +1,28 @@
+package com.example.demo.events.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.kafka.support.JacksonUtils;
+
+/**
+ * 事件传输层共用的 ObjectMapper。
+ * <p>
+ * 在 Spring Kafka 的增强配置（JavaTime、忽略未知属性）之上注册 Blackbird，
+ * 属性读写与记录类的规范构造器调用由启动时生成的 lambda 完成，不走反射。
+ * 序列化器、反序列化器、本地日志与发件箱默认共用这一实例，负载类型的序列化器只构建一次。
+ */
+public final class EventJson {
+
+    private static final ObjectMapper MAPPER = JacksonUtils.enhancedObjectMapper()
+            .registerModule(new BlackbirdModule());
+
+    private EventJson() {
+    }
+
+    /**
+     * @return 共用的 ObjectMapper，不要修改其配置
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+}
@@ -2,19 +2,20 @@ package com.example.demo.events.transport;
 
 import com.example.demo.events.domain.BaseDomainEvent;
 import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.versioning.EventVersionConverter;
 import com.example.demo.events.versioning.EventVersionManager;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 负责在领域事件与传输事件之间转换。
- * 通过 schemaId ↔ Class 的注册表隔离内部类型信息。
+ * 通过 schemaId ↔ Class 的注册表隔离内部类型信息，负载类型转换直接使用注册表中该契约的 {@link PayloadCodec}。
  */
 public final class EventMappers {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     // 对未知/未注册负载的保底 schemaId
     private static final String GENERIC_SCHEMA = "generic.v1";
 
@@ -28,21 +29,11 @@ public final class EventMappers {
      * @return 转换后的跨进程传输事件消息，包含 schemaId 表示的业务负载契约。
      */
     public static DomainEventMessage toMessage(BaseDomainEvent<?> event) {
-        Object payload = event.getPayload();
-        String schemaId = null;
-
-        if (payload != null) {
-            // 只在本地查注册表，不把类名写出
-            schemaId = EventPayloadRegistry.resolveSchemaId(payload.getClass());
-        }
-        if (schemaId == null) {
-            schemaId = GENERIC_SCHEMA;
-        }
-
+        Object payload = wirePayloadOf(event);
         return new DomainEventMessage(
                 event.getId(),
                 event.getType(),
-                schemaId,
+                schemaIdOf(event, payload),
                 event.getOccurredAt(),
                 event.getCorrelationId(),
                 event.getAttributes(),
@@ -50,6 +41,30 @@ public final class EventMappers {
         );
     }
 
+    /**
+     * 领域事件在线上使用的负载契约，出站时写入记录头与消息体，无需先转换为 {@link DomainEventMessage}。
+     *
+     * @param event 通用领域事件
+     * @return 注册表中负载类型对应的 schemaId；没有负载或未登记时为保底契约
+     */
+    public static String schemaIdOf(BaseDomainEvent<?> event) {
+        return schemaIdOf(event, wirePayloadOf(event));
+    }
+
+    /**
+     * 领域事件写到线上的负载：尚未解析的延迟负载原样转写，不为再次序列化而解析
+     */
+    static Object wirePayloadOf(BaseDomainEvent<?> event) {
+        RawPayload raw = (event instanceof LazyDomainEvent<?> lazy) ? lazy.rawPayload() : null;
+        return (raw != null) ? raw : event.getPayload();
+    }
+
+    static String schemaIdOf(BaseDomainEvent<?> event, Object wirePayload) {
+        // 只在本地查注册表，不把类名写出
+        String schemaId = (wirePayload != null) ? EventPayloadRegistry.resolveSchemaId(event.payloadType()) : null;
+        return (schemaId != null) ? schemaId : GENERIC_SCHEMA;
+    }
+
     /**
      * 将传输事件消息对象转换为通用领域事件对象。
      *
@@ -58,34 +73,47 @@ public final class EventMappers {
      * @return 转换后的通用领域事件对象，包含类型化的业务负载及其他领域事件信息。
      */
     public static BaseDomainEvent<?> toDomainEvent(DomainEventMessage msg, EventVersionManager eventVersionManager) {
-        // 如果提供了版本管理器，先进行版本转换
+        return toDomainEvent(migrate(msg, eventVersionManager));
+    }
+
+    /**
+     * 版本迁移：本地直接登记了该契约时无需转换；否则由版本管理器把负载迁移到本地登记的同族契约版本。
+     *
+     * @param msg                 跨进程传输的事件消息对象
+     * @param eventVersionManager 事件版本管理器（可选）
+     * @return 迁移后的消息，schemaId 为本地契约；无需或无法迁移时返回原消息
+     */
+    public static DomainEventMessage migrate(DomainEventMessage msg, EventVersionManager eventVersionManager) {
         Object payload = msg.payload();
-        if (eventVersionManager != null) {
-            // 检查版本兼容性
-            if (!eventVersionManager.isVersionCompatible(msg.type(), extractVersionFromSchemaId(msg.schemaId()))) {
-                // 如果不兼容，尝试转换到兼容版本
-                JsonNode payloadNode = OBJECT_MAPPER.valueToTree(payload);
-                JsonNode convertedPayload = eventVersionManager.convertEventVersion(
-                        msg.type(), 
-                        extractVersionFromSchemaId(msg.schemaId()), 
-                        "v1", // 目标版本
-                        payloadNode
-                );
-                payload = OBJECT_MAPPER.convertValue(convertedPayload, Map.class);
-            }
+        String schemaId = (msg.schemaId() != null ? msg.schemaId() : GENERIC_SCHEMA);
+        if (eventVersionManager == null || payload == null || EventPayloadRegistry.resolveClass(schemaId) != null) {
+            return msg;
+        }
+        String localSchemaId = EventPayloadRegistry.resolveLocalSchemaId(schemaId);
+        EventVersionConverter migration = (localSchemaId == null) ? null : eventVersionManager.resolveMigration(
+                msg.type(),
+                EventPayloadRegistry.versionOf(schemaId),
+                EventPayloadRegistry.versionOf(localSchemaId));
+        if (migration == null) {
+            return msg;
         }
-        
-        Class<?> payloadClass = resolvePayloadClassBySchema(msg.schemaId());
-        Object typedPayload = convertPayload(payload, payloadClass);
-
-        return BaseDomainEvent.builder()
-                .id(msg.id())
-                .type(msg.type())
-                .occurredAt(msg.occurredAt())
-                .correlationId(msg.correlationId())
-                .attributes(msg.attributes())
-                .payload(typedPayload)
-                .build();
+        // 流式反序列化器已给出树结构时直接复用，不再拷贝；延迟负载直接从原始字节解析为树
+        JsonNode payloadNode;
+        if (payload instanceof JsonNode node) {
+            payloadNode = node;
+        } else if (payload instanceof RawPayload raw) {
+            payloadNode = raw.readTree();
+        } else {
+            payloadNode = EventJson.mapper().valueToTree(payload);
+        }
+        return new DomainEventMessage(
+                msg.id(),
+                msg.type(),
+                localSchemaId,
+                msg.occurredAt(),
+                msg.correlationId(),
+                msg.attributes(),
+                migration.convert(payloadNode));
     }
 
     /**
@@ -95,50 +123,51 @@ public final class EventMappers {
      * @return 转换后的通用领域事件对象，包含类型化的业务负载及其他领域事件信息。
      */
     public static BaseDomainEvent<?> toDomainEvent(DomainEventMessage msg) {
-        return toDomainEvent(msg, null);
+        String schemaId = (msg.schemaId() != null ? msg.schemaId() : GENERIC_SCHEMA);
+        PayloadCodec<?> codec = EventPayloadRegistry.codecFor(schemaId);
+        if (msg.payload() instanceof RawPayload raw) {
+            // 信封字段已就绪，负载在首次读取时才解析
+            return lazyEvent(msg, raw, (codec != null) ? codec.payloadClass() : Map.class);
+        }
+        Object typedPayload = (codec != null) ? codec.convert(msg.payload()) : toMap(msg.payload());
+
+        // 直接构造，不经过 builder 的中间对象；属性表按引用沿用
+        return new BaseDomainEvent<>(msg.id(), msg.type(), msg.occurredAt(), msg.correlationId(),
+                msg.attributes(), typedPayload);
     }
 
-    /**
-     * 根据给定的 schemaId 确定对应的负载 Java 类型。
-     * 如果 schemaId 为空或未能找到匹配的类型，默认返回 Map.class。
-     *
-     * @param schemaId 业务级负载契约标识符，用于定位对应的 Java 类型
-     * @return schemaId 对应的 Java 类型；如果未找到，返回 Map.class
-     */
-    private static Class<?> resolvePayloadClassBySchema(String schemaId) {
-        if (schemaId == null) return Map.class;
-        Class<?> clazz = EventPayloadRegistry.resolveClass(schemaId);
-        return (clazz != null ? clazz : Map.class);
+    private static <T> LazyDomainEvent<T> lazyEvent(DomainEventMessage msg, RawPayload raw, Class<T> payloadClass) {
+        return new LazyDomainEvent<>(msg.id(), msg.type(), msg.occurredAt(), msg.correlationId(),
+                msg.attributes(), raw, payloadClass);
     }
 
     /**
-     * 将给定的负载对象转换为目标类型的实例。
-     * 如果负载为 null 或已是目标类型的实例，则直接返回输入负载。
-     * 如果类型不匹配，使用 ObjectMapper 执行类型转换。
+     * 批量将传输事件消息转换为通用领域事件，一次遍历完成整批的版本转换与负载映射。
      *
-     * @param payload     要转换的负载对象，可以为任意类型
-     * @param targetClass 目标类型的 Class 对象，用于指定转换后的类型
-     * @return 转换后的目标类型实例；如果负载为 null 或已是目标类型，则直接返回输入负载
+     * @param messages            跨进程传输的事件消息列表
+     * @param eventVersionManager 事件版本管理器（可选）
+     * @return 转换后的领域事件列表，顺序与输入一致
      */
-    private static Object convertPayload(Object payload, Class<?> targetClass) {
-        if (payload == null || targetClass.isInstance(payload)) {
-            return payload;
+    public static List<BaseDomainEvent<?>> toDomainEvents(List<DomainEventMessage> messages,
+                                                          EventVersionManager eventVersionManager) {
+        List<BaseDomainEvent<?>> events = new ArrayList<>(messages.size());
+        for (DomainEventMessage msg : messages) {
+            events.add(toDomainEvent(msg, eventVersionManager));
         }
-        return OBJECT_MAPPER.convertValue(payload, targetClass);
+        return events;
     }
-    
+
     /**
-     * 从schemaId中提取版本信息
-     * 
-     * @param schemaId schemaId
-     * @return 版本信息
+     * 未登记契约的负载统一表示为 Map。
+     * 流式反序列化或版本转换得到的树结构在这里转换为 Map；已是 Map 或为 null 时原样返回。
+     *
+     * @param payload 要转换的负载对象
+     * @return Map 形式的负载
      */
-    private static String extractVersionFromSchemaId(String schemaId) {
-        if (schemaId == null) return "v1";
-        int lastDotIndex = schemaId.lastIndexOf('.');
-        if (lastDotIndex > 0 && lastDotIndex < schemaId.length() - 1) {
-            return schemaId.substring(lastDotIndex + 1);
+    private static Object toMap(Object payload) {
+        if (payload == null || payload instanceof Map) {
+            return payload;
         }
-        return "v1";
+        return EventJson.mapper().convertValue(payload, Map.class);
     }
 }
@@ -0,0 +1,83 @@
+package com.example.demo.events.transport;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 本实例的来源标识，写入已在本地分发过的出站记录头 {@value EventRecordHeaders#ORIGIN}，格式为 {@code 应用名@节点 ID}。
+ * <p>
+ * 节点 ID 取 {@code app.origin.node-id}；未配置时为主机名加每次启动随机生成的后缀，
+ * 重启前发出但未被自己消费的记录在重启后按外部记录处理，本地监听器不会漏收。
+ * 消费端按字节比较判断记录是否由本实例发出，不解码头的值。
+ * 经重试或死信主题转发的记录保留了原始头，但已由消费端转交，不再视为本实例发出。
+ */
+@Component
+public class EventOrigin {
+
+    private final String application;
+    private final String nodeId;
+    private final byte[] headerValue;
+
+    public EventOrigin(@Value("${spring.application.name:kafka-domain-bridge}") String application,
+                       @Value("${app.origin.node-id:}") String nodeId) {
+        this.application = application;
+        this.nodeId = (nodeId == null || nodeId.isBlank()) ? defaultNodeId() : nodeId;
+        this.headerValue = EventRecordHeaders.encode(this.application + "@" + this.nodeId);
+    }
+
+    /**
+     * @return 应用名
+     */
+    public String application() {
+        return application;
+    }
+
+    /**
+     * @return 节点 ID
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 在出站记录头中写入来源
+     *
+     * @param headers 记录头
+     */
+    public void stamp(Headers headers) {
+        headers.add(EventRecordHeaders.ORIGIN, headerValue);
+    }
+
+    /**
+     * @param headers 记录头，可为 null
+     * @return 记录是否由本实例发出；没有来源头或为重试、死信转发的记录时返回 false
+     */
+    public boolean isSelf(Headers headers) {
+        Header header = (headers != null) ? headers.lastHeader(EventRecordHeaders.ORIGIN) : null;
+        return header != null && Arrays.equals(header.value(), headerValue)
+                && headers.lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC) == null;
+    }
+
+    @Override
+    public String toString() {
+        return application + "@" + nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,47 +1,204 @@
 package com.example.demo.events.transport;
 
-import com.example.demo.events.OrderCreatedPayload;
-
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 本地注册表：维护业务级 schemaId 与 Java Payload 类型之间的双向映射。
  * Kafka 消息只携带 schemaId，应用内用它来恢复强类型。
+ * 每个契约登记时同时创建其 {@link PayloadCodec}，类型转换按 schemaId 或负载类型直接取用。
+ * <p>
+ * 契约由启动时扫描 {@link EventSchema} 注解登记（见 {@link EventSchemaScanner}），也可以在运行时登记、注销。
+ * 所有查找表放在一个不可变快照里，读路径只读一次 volatile 引用，不加锁；
+ * 登记与注销在锁内基于当前快照构建新快照后整体替换，读线程看到的始终是某个完整版本。
  */
 public final class EventPayloadRegistry {
 
-    private static final Map<String, Class<?>> SCHEMA_TO_CLASS;
-    private static final Map<Class<?>, String> CLASS_TO_SCHEMA;
+    private static final Object WRITE_LOCK = new Object();
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
 
-    static {
-        Map<String, Class<?>> s2c = new HashMap<>();
-        Map<Class<?>, String> c2s = new HashMap<>();
+    private EventPayloadRegistry() {
+    }
 
-        // 在此登记所有受支持的负载契约
-        register(s2c, c2s, "order.created.v1", OrderCreatedPayload.class);
-        // 注册v2版本的OrderCreated事件（如果需要不同的类）
-        // register(s2c, c2s, "order.created.v2", OrderCreatedPayloadV2.class);
+    /**
+     * 登记一个负载契约
+     *
+     * @param schemaId     schemaId，如 "order.created.v2"
+     * @param payloadClass 负载类型
+     * @throws IllegalStateException schemaId 已登记为其他类型
+     */
+    public static void register(String schemaId, Class<?> payloadClass) {
+        registerAll(Map.of(schemaId, payloadClass));
+    }
 
-        SCHEMA_TO_CLASS = Collections.unmodifiableMap(s2c);
-        CLASS_TO_SCHEMA = Collections.unmodifiableMap(c2s);
+    /**
+     * 批量登记负载契约，只构建一次快照
+     *
+     * @param schemas schemaId -> 负载类型
+     * @throws IllegalStateException 任一 schemaId 已登记为其他类型，此时整批都不生效
+     */
+    public static void registerAll(Map<String, ? extends Class<?>> schemas) {
+        synchronized (WRITE_LOCK) {
+            Map<String, Class<?>> registrations = new LinkedHashMap<>(snapshot.schemaToClass);
+            for (Map.Entry<String, ? extends Class<?>> entry : schemas.entrySet()) {
+                Class<?> existing = registrations.putIfAbsent(entry.getKey(), entry.getValue());
+                if (existing != null && existing != entry.getValue()) {
+                    throw new IllegalStateException("Schema " + entry.getKey() + " is already registered to "
+                            + existing.getName() + ", can't register " + entry.getValue().getName());
+                }
+            }
+            snapshot = Snapshot.build(registrations, snapshot);
+        }
     }
 
-    private EventPayloadRegistry() {
+    /**
+     * 注销一个负载契约
+     *
+     * @param schemaId schemaId
+     * @return 该契约此前已登记时返回 true
+     */
+    public static boolean deregister(String schemaId) {
+        synchronized (WRITE_LOCK) {
+            Map<String, Class<?>> registrations = new LinkedHashMap<>(snapshot.schemaToClass);
+            if (registrations.remove(schemaId) == null) {
+                return false;
+            }
+            snapshot = Snapshot.build(registrations, snapshot);
+            return true;
+        }
     }
 
-    private static void register(Map<String, Class<?>> s2c, Map<Class<?>, String> c2s,
-                                 String schemaId, Class<?> clazz) {
-        s2c.put(schemaId, clazz);
-        c2s.put(clazz, schemaId);
+    /**
+     * @return 当前已登记的全部 schemaId
+     */
+    public static Set<String> schemaIds() {
+        return snapshot.schemaToClass.keySet();
     }
 
     public static Class<?> resolveClass(String schemaId) {
-        return SCHEMA_TO_CLASS.get(schemaId);
+        return snapshot.schemaToClass.get(schemaId);
     }
 
     public static String resolveSchemaId(Class<?> clazz) {
-        return CLASS_TO_SCHEMA.get(clazz);
+        PayloadCodec<?> codec = snapshot.classToCodec.get(clazz);
+        return (codec != null) ? codec.schemaId() : null;
+    }
+
+    /**
+     * @param schemaId schemaId，可为 null
+     * @return 该契约的编解码器；未登记时返回 null
+     */
+    public static PayloadCodec<?> codecFor(String schemaId) {
+        return (schemaId != null) ? snapshot.schemaToCodec.get(schemaId) : null;
+    }
+
+    /**
+     * @param clazz 负载类型
+     * @return 该负载类型的编解码器；未登记时返回 null
+     */
+    public static PayloadCodec<?> codecFor(Class<?> clazz) {
+        return snapshot.classToCodec.get(clazz);
+    }
+
+    /**
+     * 查找与给定 schemaId 同一契约族、在本地登记的 schemaId，即入站版本转换的目标契约
+     *
+     * @param schemaId 任意版本的 schemaId，如 "order.created.v2"
+     * @return 本地登记的同族 schemaId；该契约族未在本地登记时返回 null
+     */
+    public static String resolveLocalSchemaId(String schemaId) {
+        return snapshot.familyToSchema.get(familyOf(schemaId));
+    }
+
+    /**
+     * 从 schemaId 中提取版本，约定最后一段为版本号，如 "order.created.v1" -> "v1"
+     *
+     * @param schemaId schemaId
+     * @return 版本信息，无法识别时返回 "v1"
+     */
+    public static String versionOf(String schemaId) {
+        if (schemaId == null) return "v1";
+        int lastDotIndex = schemaId.lastIndexOf('.');
+        if (lastDotIndex > 0 && lastDotIndex < schemaId.length() - 1) {
+            return schemaId.substring(lastDotIndex + 1);
+        }
+        return "v1";
+    }
+
+    /**
+     * 从 schemaId 中去掉版本段得到契约族，如 "order.created.v1" -> "order.created"
+     *
+     * @param schemaId schemaId
+     * @return 契约族；没有版本段时返回原值
+     */
+    public static String familyOf(String schemaId) {
+        int lastDotIndex = schemaId.lastIndexOf('.');
+        return lastDotIndex > 0 ? schemaId.substring(0, lastDotIndex) : schemaId;
+    }
+
+    /**
+     * 版本段的数字部分，如 "v2" -> 2；无法识别时返回 0
+     */
+    private static int versionNumber(String schemaId) {
+        String version = versionOf(schemaId);
+        int start = (version.startsWith("v") || version.startsWith("V")) ? 1 : 0;
+        try {
+            return Integer.parseInt(version.substring(start));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 某一时刻注册表的完整内容，构建后不再修改
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), Map.of());
+
+        final Map<String, Class<?>> schemaToClass;
+        final Map<String, PayloadCodec<?>> schemaToCodec;
+        // 负载类型 -> 出站使用的契约；同一类型登记了多个 schemaId 时取最先登记的
+        final Map<Class<?>, PayloadCodec<?>> classToCodec;
+        // 契约族（去掉版本后缀的 schemaId，如 "order.created"）-> 本地使用的 schemaId，取版本号最大的
+        final Map<String, String> familyToSchema;
+
+        private Snapshot(Map<String, Class<?>> schemaToClass, Map<String, PayloadCodec<?>> schemaToCodec,
+                         Map<Class<?>, PayloadCodec<?>> classToCodec, Map<String, String> familyToSchema) {
+            this.schemaToClass = schemaToClass;
+            this.schemaToCodec = schemaToCodec;
+            this.classToCodec = classToCodec;
+            this.familyToSchema = familyToSchema;
+        }
+
+        /**
+         * 按登记顺序构建快照，沿用上一版本中未变化的编解码器
+         */
+        static Snapshot build(Map<String, Class<?>> registrations, Snapshot previous) {
+            Map<String, PayloadCodec<?>> s2codec = new HashMap<>();
+            Map<Class<?>, PayloadCodec<?>> c2codec = new HashMap<>();
+            Map<String, String> f2s = new HashMap<>();
+            for (Map.Entry<String, Class<?>> entry : registrations.entrySet()) {
+                String schemaId = entry.getKey();
+                PayloadCodec<?> codec = previous.schemaToCodec.get(schemaId);
+                if (codec == null || codec.payloadClass() != entry.getValue()) {
+                    codec = newCodec(schemaId, entry.getValue());
+                }
+                s2codec.put(schemaId, codec);
+                c2codec.putIfAbsent(entry.getValue(), codec);
+                f2s.merge(familyOf(schemaId), schemaId,
+                        (current, candidate) -> versionNumber(candidate) >= versionNumber(current) ? candidate : current);
+            }
+            // schemaToClass 保留登记顺序，下次构建时据此决定负载类型对应的出站契约
+            return new Snapshot(Collections.unmodifiableMap(registrations), Map.copyOf(s2codec),
+                    Map.copyOf(c2codec), Map.copyOf(f2s));
+        }
+    }
+
+    private static <T> PayloadCodec<T> newCodec(String schemaId, Class<T> clazz) {
+        return new PayloadCodec<>(schemaId, clazz, EventJson.mapper());
     }
 }
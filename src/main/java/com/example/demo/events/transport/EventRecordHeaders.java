@@ -0,0 +1,62 @@
+package com.example.demo.events.transport;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 领域事件记录头。
+ * <p>
+ * 生产端把信封中的路由字段（type、schemaId、id、correlationId）同时写成 UTF-8 原始字节的记录头，
+ * 消费端不解析消息体就能判断是否需要这条记录。没有这些头的记录（旧生产者）一律按需要处理。
+ */
+public final class EventRecordHeaders {
+
+    public static final String TYPE = "x-event-type";
+    public static final String SCHEMA_ID = "x-schema-id";
+    public static final String ID = "x-event-id";
+    public static final String CORRELATION_ID = "x-correlation-id";
+
+    /**
+     * 发出记录的实例（{@link EventOrigin}），消费端据此跳过本实例发出的记录
+     */
+    public static final String ORIGIN = "x-origin";
+
+    /**
+     * 消费端标记：记录在反序列化前已被过滤，消息体未解析
+     */
+    public static final String FILTERED = "x-filtered";
+
+    private EventRecordHeaders() {
+    }
+
+    /**
+     * 编码头的值
+     *
+     * @param value 头的值，可为 null
+     * @return UTF-8 字节；值为 null 时返回 null
+     */
+    public static byte[] encode(String value) {
+        return (value != null) ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 读取头的值
+     *
+     * @param headers 记录头，可为 null
+     * @param name    头名称
+     * @return 最后一个同名头的值；不存在时返回 null
+     */
+    public static String read(Headers headers, String name) {
+        Header header = (headers != null ? headers.lastHeader(name) : null);
+        return (header != null && header.value() != null) ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * @return 记录是否已在反序列化前被过滤
+     */
+    public static boolean isFiltered(Headers headers) {
+        return headers != null && headers.lastHeader(FILTERED) != null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.events.transport;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明负载类型对应的契约，启动时由 {@link EventSchemaScanner} 扫描并登记到 {@link EventPayloadRegistry}。
+ * <pre>
+ * &#64;EventSchema("order.created.v1")
+ * public record OrderCreatedPayload(String orderId, String userId, BigDecimal amount) { }
+ * </pre>
+ * 同一契约族（去掉版本段的 schemaId）登记多个版本时，版本号最大的作为入站版本转换的目标。
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EventSchema {
+
+    /**
+     * schemaId，约定最后一段为版本号，如 "order.created.v2"
+     */
+    String value();
+}
@@ -0,0 +1,73 @@
+package com.example.demo.events.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 启动时扫描带 {@link EventSchema} 注解的负载类型并登记到 {@link EventPayloadRegistry}。
+ * <p>
+ * 作为 BeanFactoryPostProcessor 在任何单例 Bean 创建之前运行，按 schemaId 登记契约的 Bean（如分区键策略）
+ * 在构造时就能看到全部契约。扫描范围为 {@code app.schemas.base-packages}（逗号分隔），
+ * 未配置时为 Spring Boot 的自动配置包（启动类所在包）。
+ */
+@Component
+public class EventSchemaScanner implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSchemaScanner.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        List<String> basePackages = basePackages(beanFactory);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.setEnvironment(environment);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(EventSchema.class, false));
+
+        // 按 schemaId 排序，登记顺序与类路径顺序无关
+        Map<String, Class<?>> schemas = new TreeMap<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                Class<?> payloadClass = ClassUtils.resolveClassName(candidate.getBeanClassName(), beanFactory.getBeanClassLoader());
+                String schemaId = payloadClass.getAnnotation(EventSchema.class).value();
+                Class<?> existing = schemas.putIfAbsent(schemaId, payloadClass);
+                if (existing != null && existing != payloadClass) {
+                    throw new IllegalStateException("Duplicate @EventSchema(\"" + schemaId + "\") on "
+                            + existing.getName() + " and " + payloadClass.getName());
+                }
+            }
+        }
+        EventPayloadRegistry.registerAll(schemas);
+        log.info("Registered {} event schemas from {}: {}", schemas.size(), basePackages, schemas.keySet());
+    }
+
+    private List<String> basePackages(ConfigurableListableBeanFactory beanFactory) {
+        String configured = environment.getProperty("app.schemas.base-packages");
+        if (configured != null && !configured.isBlank()) {
+            return List.of(configured.trim().split("\\s*,\\s*"));
+        }
+        if (AutoConfigurationPackages.has(beanFactory)) {
+            return AutoConfigurationPackages.get(beanFactory);
+        }
+        throw new IllegalStateException("app.schemas.base-packages is not set and no auto-configuration package is available");
+    }
+}
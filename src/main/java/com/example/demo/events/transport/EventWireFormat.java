@@ -0,0 +1,71 @@
+package com.example.demo.events.transport;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * DomainEventMessage 的线上编码格式，由记录头 {@value #HEADER} 协商。
+ * 没有该头的记录一律按 JSON 处理，因此 JSON 与二进制生产者可以在灰度期间共存。
+ */
+public enum EventWireFormat {
+
+    /**
+     * 原有 JSON 编码
+     */
+    JSON("json"),
+
+    /**
+     * 紧凑二进制编码，见 {@link BinaryDomainEventCodec}
+     */
+    BINARY("binary");
+
+    public static final String HEADER = "x-wire-format";
+
+    /**
+     * 生产者配置项：spring.kafka.producer.properties.app.wire.format
+     */
+    public static final String CONFIG = "app.wire.format";
+
+    private final String value;
+    private final byte[] headerValue;
+
+    EventWireFormat(String value) {
+        this.value = value;
+        this.headerValue = value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String value() {
+        return value;
+    }
+
+    byte[] headerValue() {
+        return headerValue;
+    }
+
+    /**
+     * 从记录头识别编码格式
+     *
+     * @param headers 记录头，可为 null
+     * @return 编码格式，缺省为 JSON
+     */
+    public static EventWireFormat fromHeaders(Headers headers) {
+        Header header = (headers != null ? headers.lastHeader(HEADER) : null);
+        if (header != null && header.value() != null
+                && new String(header.value(), StandardCharsets.UTF_8).equals(BINARY.value)) {
+            return BINARY;
+        }
+        return JSON;
+    }
+
+    /**
+     * 从配置值识别编码格式
+     *
+     * @param value 配置值，可为 null
+     * @return 编码格式，缺省为 JSON
+     */
+    public static EventWireFormat fromConfig(Object value) {
+        return (value != null && BINARY.value.equalsIgnoreCase(value.toString().trim())) ? BINARY : JSON;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.events.transport;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * 入站记录的前置过滤：只根据记录头判断本地是否有人关心这条记录，不需要的记录不做反序列化。
+ * <p>
+ * 通过消费者配置 {@value #CONFIG} 传入 {@link DomainEventMessageDeserializer}（值为过滤器实例）。
+ */
+@FunctionalInterface
+public interface InboundRecordFilter {
+
+    /**
+     * 消费者配置项，值为 {@link InboundRecordFilter} 实例
+     */
+    String CONFIG = "app.consumer.record-filter";
+
+    /**
+     * 判断是否需要该 (事件类型, 负载契约) 组合
+     *
+     * @param type     事件类型
+     * @param schemaId 负载契约，可为 null
+     * @return 需要时返回 true
+     */
+    boolean accepts(String type, String schemaId);
+
+    /**
+     * 按记录头判断；没有事件类型头的记录（旧生产者）始终需要
+     *
+     * @param headers 记录头
+     * @return 需要时返回 true
+     */
+    default boolean accepts(Headers headers) {
+        String type = EventRecordHeaders.read(headers, EventRecordHeaders.TYPE);
+        return type == null || accepts(type, EventRecordHeaders.read(headers, EventRecordHeaders.SCHEMA_ID));
+    }
+}
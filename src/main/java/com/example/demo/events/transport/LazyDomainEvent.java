@@ -0,0 +1,81 @@
+package com.example.demo.events.transport;
+
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.core.ResolvableType;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 负载延迟解析的领域事件。
+ * <p>
+ * 信封字段（id、type、occurredAt 等）在映射时已就绪，负载保留为 {@link RawPayload}，
+ * 第一次调用 {@link #getPayload()} 时才绑定到本地类型并缓存结果。只按类型、属性路由、审计或过滤的监听器不会触发负载解析。
+ * 路由与泛型匹配使用映射时按 schemaId 确定的负载类型，同样无需解析。
+ *
+ * @param <T> 负载类型
+ */
+public class LazyDomainEvent<T> extends BaseDomainEvent<T> {
+
+    private final Class<T> payloadClass;
+    private volatile RawPayload raw;
+
+    LazyDomainEvent(String id, String type, Instant occurredAt, String correlationId,
+                    Map<String, Object> attributes, RawPayload raw, Class<T> payloadClass) {
+        super(id, type, occurredAt, correlationId, attributes, null);
+        this.raw = raw;
+        this.payloadClass = payloadClass;
+    }
+
+    /**
+     * 首次调用时解析负载，之后返回缓存的结果；并发调用只解析一次
+     */
+    @Override
+    public T getPayload() {
+        if (raw != null) {
+            materialize();
+        }
+        return super.getPayload();
+    }
+
+    @Override
+    public synchronized void setPayload(T payload) {
+        super.setPayload(payload);
+        raw = null;
+    }
+
+    /**
+     * @return 负载是否已经解析
+     */
+    @JsonIgnore
+    public boolean isMaterialized() {
+        return raw == null;
+    }
+
+    /**
+     * @return 尚未解析的原始负载；已解析时返回 null
+     */
+    RawPayload rawPayload() {
+        return raw;
+    }
+
+    @Override
+    public Class<?> payloadType() {
+        return payloadClass;
+    }
+
+    @Override
+    @JsonIgnore
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(BaseDomainEvent.class, payloadClass);
+    }
+
+    private synchronized void materialize() {
+        RawPayload pending = raw;
+        if (pending != null) {
+            super.setPayload(pending.readAs(payloadClass));
+            raw = null;
+        }
+    }
+}
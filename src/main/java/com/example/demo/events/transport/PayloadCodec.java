@@ -0,0 +1,104 @@
+package com.example.demo.events.transport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+
+/**
+ * 单个负载契约的编解码器，在 {@link EventPayloadRegistry} 登记契约时创建一次。
+ * <p>
+ * 预先为负载类型构建 {@link ObjectReader} 与 {@link ObjectWriter}，反序列化器与序列化器在此时解析完毕；
+ * 映射、两种线上格式的负载读写与延迟绑定都按 schemaId 或负载类型取到编解码器后直接调用，不再按 Class 查找缓存。
+ *
+ * @param <T> 负载类型
+ */
+public final class PayloadCodec<T> {
+
+    private final String schemaId;
+    private final Class<T> payloadClass;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    PayloadCodec(String schemaId, Class<T> payloadClass, ObjectMapper objectMapper) {
+        this.schemaId = schemaId;
+        this.payloadClass = payloadClass;
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.readerFor(payloadClass);
+        this.writer = objectMapper.writerFor(payloadClass);
+    }
+
+    public String schemaId() {
+        return schemaId;
+    }
+
+    public Class<T> payloadClass() {
+        return payloadClass;
+    }
+
+    /**
+     * 从解析器当前位置读取负载
+     */
+    T read(JsonParser parser) throws IOException {
+        return reader.readValue(parser);
+    }
+
+    /**
+     * 从字节切片读取负载
+     */
+    T read(byte[] data, int offset, int length) throws IOException {
+        return reader.readValue(data, offset, length);
+    }
+
+    /**
+     * 从树结构读取负载
+     */
+    T read(JsonNode node) throws IOException {
+        return reader.readValue(node);
+    }
+
+    /**
+     * 把负载编码为 JSON 字节
+     *
+     * @param payload 负载类型的实例
+     */
+    byte[] write(Object payload) throws IOException {
+        return writer.writeValueAsBytes(payload);
+    }
+
+    /**
+     * 从树结构绑定负载
+     */
+    public T fromTree(JsonNode node) {
+        try {
+            return read(node);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't bind payload to " + payloadClass.getName(), e);
+        }
+    }
+
+    /**
+     * 把任意形式的负载（树结构、Map 等）转换为负载类型
+     *
+     * @param payload 负载，可为 null
+     * @return 负载对象；已是负载类型时原样返回
+     */
+    public T convert(Object payload) {
+        if (payload == null || payloadClass.isInstance(payload)) {
+            return payloadClass.cast(payload);
+        }
+        if (payload instanceof JsonNode node) {
+            return fromTree(node);
+        }
+        return fromTree(objectMapper.valueToTree(payload));
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadCodec[" + schemaId + " -> " + payloadClass.getSimpleName() + "]";
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.events.transport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * 按 schemaId 解析 payload 的共用逻辑，JSON 与二进制两种线上格式共用。
+ * 本地登记了该契约时直接交给 {@link EventPayloadRegistry} 中该契约的 {@link PayloadCodec} 读写，
+ * 否则保留为 {@link JsonNode} 供版本迁移使用。
+ */
+final class PayloadReaders {
+
+    private final ObjectMapper objectMapper;
+
+    PayloadReaders(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    Object read(JsonParser parser, String schemaId) throws IOException {
+        PayloadCodec<?> codec = EventPayloadRegistry.codecFor(schemaId);
+        if (codec != null) {
+            return codec.read(parser);
+        }
+        // 本地未注册的契约（其他版本或通用负载），保留为树结构，供版本转换使用
+        return objectMapper.readTree(parser);
+    }
+
+    /**
+     * payload 先于 schemaId 解析时只能先读成树，拿到 schemaId 后补做一次类型绑定
+     */
+    Object bind(JsonNode node, String schemaId) throws IOException {
+        PayloadCodec<?> codec = EventPayloadRegistry.codecFor(schemaId);
+        return codec != null ? codec.read(node) : node;
+    }
+
+    /**
+     * 延迟解析：payload 为对象或数组时只记录其在记录字节中的位置并跳过，标量仍按 schemaId 直接读取
+     */
+    Object readLazily(JsonParser parser, byte[] data, String schemaId) throws IOException {
+        if (!parser.currentToken().isStructStart()) {
+            return read(parser, schemaId);
+        }
+        int start = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        int end = (int) parser.currentLocation().getByteOffset();
+        return new RawPayload(data, start, end - start, this);
+    }
+
+    /**
+     * 把字节切片绑定到给定类型：登记过的负载类型走其编解码器，其他类型（Map 等通用负载）由 ObjectMapper 读取
+     */
+    <T> T read(byte[] data, int offset, int length, Class<T> type) throws IOException {
+        PayloadCodec<?> codec = EventPayloadRegistry.codecFor(type);
+        if (codec != null && codec.payloadClass() == type) {
+            return type.cast(codec.read(data, offset, length));
+        }
+        return objectMapper.readValue(data, offset, length, type);
+    }
+
+    JsonNode readTree(byte[] data, int offset, int length) throws IOException {
+        return objectMapper.readTree(data, offset, length);
+    }
+
+    /**
+     * 按负载的运行时类型取登记的编解码器编码；未登记的负载（Map、树结构等）由 ObjectMapper 编码
+     */
+    byte[] write(Object payload) throws IOException {
+        PayloadCodec<?> codec = EventPayloadRegistry.codecFor(payload.getClass());
+        return codec != null ? codec.write(payload) : objectMapper.writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.events.transport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 尚未解析的 payload：记录字节数组中一段 JSON 的切片，不拷贝。
+ * <p>
+ * 启用延迟解析时由反序列化器放入 {@link com.example.demo.events.domain.DomainEventMessage#payload()}，
+ * 映射为 {@link LazyDomainEvent} 后在首次读取负载时才绑定类型。再次序列化（发件箱、本地日志、转发）时原样写出。
+ */
+public final class RawPayload implements JsonSerializable {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private final PayloadReaders readers;
+
+    RawPayload(byte[] data, int offset, int length, PayloadReaders readers) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        this.readers = readers;
+    }
+
+    /**
+     * 绑定到给定类型
+     *
+     * @param type 目标类型
+     * @return 负载对象
+     */
+    public <T> T readAs(Class<T> type) {
+        try {
+            return readers.read(data, offset, length, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't bind payload to " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 解析为树结构，供版本迁移使用
+     */
+    public JsonNode readTree() {
+        try {
+            return readers.readTree(data, offset, length);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't parse payload", e);
+        }
+    }
+
+    /**
+     * payload 的字节数
+     */
+    public int length() {
+        return length;
+    }
+
+    byte[] data() {
+        return data;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(new String(data, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return "RawPayload[" + length + " bytes]";
+    }
+}
@@ -3,25 +3,22 @@ package com.example.demo.events.versioning;
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
- * 事件版本转换器接口
+ * 事件版本迁移步骤：把某一事件类型的负载从一个版本转换到另一个版本。
+ * 单个步骤只描述一跳（如 v1→v2），多跳迁移由 {@link EventVersionManager} 按最短路径组合而成。
  */
+@FunctionalInterface
 public interface EventVersionConverter {
-    
+
     /**
-     * 转换事件数据从一个版本到另一个版本
-     *
-     * @param fromVersion 源版本
-     * @param toVersion   目标版本
-     * @param eventData   事件数据
-     * @return 转换后的事件数据
+     * 恒等迁移，源版本与目标版本相同时使用
      */
-    JsonNode convert(String fromVersion, String toVersion, JsonNode eventData);
-    
+    EventVersionConverter IDENTITY = eventData -> eventData;
+
     /**
-     * 检查指定版本是否兼容
+     * 转换事件数据
      *
-     * @param version 版本号
-     * @return 是否兼容
+     * @param eventData 源版本的事件数据，实现可以原地修改并返回
+     * @return 目标版本的事件数据
      */
-    boolean isCompatible(String version);
-}
\ No newline at end of file
+    JsonNode convert(JsonNode eventData);
+}
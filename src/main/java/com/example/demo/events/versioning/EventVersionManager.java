@@ -1,31 +1,70 @@
 package com.example.demo.events.versioning;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 事件版本管理器，用于处理事件的版本兼容性
+ * 事件版本管理器，用于处理事件的版本兼容性。
+ * <p>
+ * 每个事件类型维护一张版本迁移图：节点是版本，边是注册的单跳迁移步骤。
+ * 首次请求 (type, from, to) 时按最短路径把各步骤组合成一条迁移链并缓存，
+ * 之后同一组合的转换只需一次缓存查找和一次组合函数调用。
  */
 @Component
 public class EventVersionManager {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    // 事件类型到版本转换器的映射
-    private final Map<String, EventVersionConverter> versionConverters = new ConcurrentHashMap<>();
+    // 未找到迁移路径时的缓存占位，避免对同一组合反复搜索
+    private static final EventVersionConverter NO_PATH = eventData -> eventData;
+
+    // 事件类型 -> 源版本 -> 目标版本 -> 单跳迁移步骤
+    private final Map<String, Map<String, Map<String, EventVersionConverter>>> migrationSteps = new HashMap<>();
+
+    // (事件类型, 源版本, 目标版本) -> 组合后的迁移链
+    private final Map<MigrationKey, EventVersionConverter> migrationChains = new ConcurrentHashMap<>();
 
     /**
-     * 注册事件版本转换器
+     * 注册单跳版本迁移步骤。注册后会使该事件类型已缓存的迁移链失效。
      *
-     * @param eventType 事件类型
-     * @param converter 版本转换器
+     * @param eventType   事件类型
+     * @param fromVersion 源版本
+     * @param toVersion   目标版本
+     * @param converter   迁移步骤
      */
-    public void registerVersionConverter(String eventType, EventVersionConverter converter) {
-        versionConverters.put(eventType, converter);
+    public synchronized void registerVersionConverter(String eventType, String fromVersion, String toVersion,
+                                                      EventVersionConverter converter) {
+        migrationSteps.computeIfAbsent(eventType, k -> new HashMap<>())
+                .computeIfAbsent(fromVersion, k -> new HashMap<>())
+                .put(toVersion, converter);
+        migrationChains.keySet().removeIf(key -> key.eventType().equals(eventType));
+    }
+
+    /**
+     * 解析从源版本到目标版本的迁移链
+     *
+     * @param eventType   事件类型
+     * @param fromVersion 源版本
+     * @param toVersion   目标版本
+     * @return 组合后的迁移链；版本相同时返回 {@link EventVersionConverter#IDENTITY}，不存在迁移路径时返回 null
+     */
+    public EventVersionConverter resolveMigration(String eventType, String fromVersion, String toVersion) {
+        if (fromVersion.equals(toVersion)) {
+            return EventVersionConverter.IDENTITY;
+        }
+        MigrationKey key = new MigrationKey(eventType, fromVersion, toVersion);
+        EventVersionConverter chain = migrationChains.get(key);
+        if (chain == null) {
+            chain = compileMigration(key);
+        }
+        return chain == NO_PATH ? null : chain;
     }
 
     /**
@@ -35,30 +74,76 @@ public class EventVersionManager {
      * @param fromVersion  源版本
      * @param toVersion    目标版本
      * @param eventData    事件数据
-     * @return 转换后的事件数据
+     * @return 转换后的事件数据；不存在迁移路径时返回原始数据
      */
     public JsonNode convertEventVersion(String eventType, String fromVersion, String toVersion, JsonNode eventData) {
-        EventVersionConverter converter = versionConverters.get(eventType);
-        if (converter != null) {
-            return converter.convert(fromVersion, toVersion, eventData);
-        }
-        // 如果没有找到转换器，返回原始数据
-        return eventData;
+        EventVersionConverter chain = resolveMigration(eventType, fromVersion, toVersion);
+        return chain != null ? chain.convert(eventData) : eventData;
     }
 
     /**
-     * 检查事件版本是否兼容
+     * 检查事件能否从源版本迁移到目标版本
      *
      * @param eventType   事件类型
-     * @param eventVersion 事件版本
-     * @return 是否兼容
+     * @param fromVersion 源版本
+     * @param toVersion   目标版本
+     * @return 是否存在迁移路径
      */
-    public boolean isVersionCompatible(String eventType, String eventVersion) {
-        EventVersionConverter converter = versionConverters.get(eventType);
-        if (converter != null) {
-            return converter.isCompatible(eventVersion);
+    public boolean canConvert(String eventType, String fromVersion, String toVersion) {
+        return resolveMigration(eventType, fromVersion, toVersion) != null;
+    }
+
+    /**
+     * 在迁移图上做广度优先搜索得到最短路径，组合后写入缓存
+     */
+    private synchronized EventVersionConverter compileMigration(MigrationKey key) {
+        EventVersionConverter cached = migrationChains.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<String, Map<String, EventVersionConverter>> graph =
+                migrationSteps.getOrDefault(key.eventType(), Collections.emptyMap());
+        Map<String, String> previous = new HashMap<>();
+        Queue<String> queue = new ArrayDeque<>();
+        previous.put(key.fromVersion(), null);
+        queue.add(key.fromVersion());
+        while (!queue.isEmpty() && !previous.containsKey(key.toVersion())) {
+            String version = queue.poll();
+            for (String next : graph.getOrDefault(version, Collections.emptyMap()).keySet()) {
+                if (!previous.containsKey(next)) {
+                    previous.put(next, version);
+                    queue.add(next);
+                }
+            }
+        }
+
+        EventVersionConverter chain = NO_PATH;
+        if (previous.containsKey(key.toVersion())) {
+            List<EventVersionConverter> steps = new ArrayList<>();
+            for (String version = key.toVersion(); previous.get(version) != null; version = previous.get(version)) {
+                steps.add(0, graph.get(previous.get(version)).get(version));
+            }
+            chain = compose(steps);
+        }
+        migrationChains.put(key, chain);
+        return chain;
+    }
+
+    private static EventVersionConverter compose(List<EventVersionConverter> steps) {
+        if (steps.size() == 1) {
+            return steps.get(0);
         }
-        // 如果没有找到转换器，默认认为兼容
-        return true;
+        EventVersionConverter[] chain = steps.toArray(new EventVersionConverter[0]);
+        return eventData -> {
+            JsonNode result = eventData;
+            for (EventVersionConverter step : chain) {
+                result = step.convert(result);
+            }
+            return result;
+        };
+    }
+
+    private record MigrationKey(String eventType, String fromVersion, String toVersion) {
     }
-}
\ No newline at end of file
+}
@@ -27,6 +27,6 @@ public class EventVersioningConfiguration {
      */
     public void registerOrderCreatedConverter(EventVersionManager eventVersionManager,
                                              OrderCreatedEventVersionConverter converter) {
-        eventVersionManager.registerVersionConverter("OrderCreated", converter);
+        converter.registerTo(eventVersionManager);
     }
 }
\ No newline at end of file
@@ -1,15 +1,16 @@
 package com.example.demo.events.versioning;
 
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.event.ContextRefreshedEvent;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.stereotype.Component;
 
 /**
  * 事件版本管理初始化配置
+ * <p>
+ * 在单例初始化完成后、生命周期组件（Kafka 监听容器、日志预热）启动前注册转换器，
+ * 保证第一条入站或回放的事件就能完成版本转换。
  */
 @Component
-public class EventVersioningInitializer {
+public class EventVersioningInitializer implements SmartInitializingSingleton {
 
     private final EventVersionManager eventVersionManager;
     private final OrderCreatedEventVersionConverter orderCreatedEventVersionConverter;
@@ -21,11 +22,11 @@ public class EventVersioningInitializer {
     }
 
     /**
-     * 在应用上下文刷新时注册事件版本转换器
+     * 在所有单例初始化完成后注册事件版本转换器
      */
-    @EventListener
-    public void onApplicationEvent(ContextRefreshedEvent event) {
+    @Override
+    public void afterSingletonsInstantiated() {
         // 注册OrderCreated事件版本转换器
-        eventVersionManager.registerVersionConverter("OrderCreated", orderCreatedEventVersionConverter);
+        orderCreatedEventVersionConverter.registerTo(eventVersionManager);
     }
 }
\ No newline at end of file
@@ -4,28 +4,20 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
- * OrderCreated事件版本转换器
+ * OrderCreated事件版本迁移步骤集合，每个相邻版本之间注册一跳迁移
  */
-public class OrderCreatedEventVersionConverter implements EventVersionConverter {
-    
-    @Override
-    public JsonNode convert(String fromVersion, String toVersion, JsonNode eventData) {
-        // 如果是从v1转换到v2
-        if ("v1".equals(fromVersion) && "v2".equals(toVersion)) {
-            return convertV1ToV2(eventData);
-        }
-        // 如果是从v2转换到v1
-        else if ("v2".equals(fromVersion) && "v1".equals(toVersion)) {
-            return convertV2ToV1(eventData);
-        }
-        // 其他情况返回原始数据
-        return eventData;
-    }
-    
-    @Override
-    public boolean isCompatible(String version) {
-        // v1和v2都是兼容的版本
-        return "v1".equals(version) || "v2".equals(version);
+public class OrderCreatedEventVersionConverter {
+
+    public static final String EVENT_TYPE = "OrderCreated";
+
+    /**
+     * 把OrderCreated的各跳迁移步骤注册到版本管理器
+     *
+     * @param eventVersionManager 事件版本管理器
+     */
+    public void registerTo(EventVersionManager eventVersionManager) {
+        eventVersionManager.registerVersionConverter(EVENT_TYPE, "v1", "v2", this::convertV1ToV2);
+        eventVersionManager.registerVersionConverter(EVENT_TYPE, "v2", "v1", this::convertV2ToV1);
     }
     
     /**
@@ -34,7 +26,7 @@ public class OrderCreatedEventVersionConverter implements EventVersionConverter
      * @param eventData v1版本的事件数据
      * @return v2版本的事件数据
      */
-    private JsonNode convertV1ToV2(JsonNode eventData) {
+    JsonNode convertV1ToV2(JsonNode eventData) {
         if (eventData instanceof ObjectNode objectNode) {
             // 在v2中添加currency字段，默认为CNY
             objectNode.put("currency", "CNY");
@@ -49,7 +41,7 @@ public class OrderCreatedEventVersionConverter implements EventVersionConverter
      * @param eventData v2版本的事件数据
      * @return v1版本的事件数据
      */
-    private JsonNode convertV2ToV1(JsonNode eventData) {
+    JsonNode convertV2ToV1(JsonNode eventData) {
         if (eventData instanceof ObjectNode objectNode) {
             // 移除v2中新增的currency字段
             objectNode.remove("currency");
@@ -57,4 +49,4 @@ public class OrderCreatedEventVersionConverter implements EventVersionConverter
         }
         return eventData;
     }
-}
\ No newline at end of file
+}
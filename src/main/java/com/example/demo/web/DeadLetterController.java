@@ -0,0 +1,33 @@
+package com.example.demo.web;
+
+import com.example.demo.events.retry.DeadLetterReplayService;
+import com.example.demo.events.retry.DeadLetterReplayService.ReplayResult;
+import com.example.demo.events.retry.InboundRetryConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 死信管理接口，启用非阻塞重试时可用
+ */
+@RestController
+@RequestMapping("/admin/dead-letters")
+@ConditionalOnExpression(InboundRetryConfiguration.ENABLED)
+public class DeadLetterController {
+
+    private final DeadLetterReplayService replayService;
+
+    public DeadLetterController(DeadLetterReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    /**
+     * 从上次回放的位置起把死信记录写回主题
+     */
+    @PostMapping("/replay")
+    public ReplayResult replay(@RequestParam(defaultValue = "1000") int maxRecords) {
+        return replayService.replay(maxRecords);
+    }
+}
@@ -3,35 +3,86 @@ package com.example.demo.web;
 import com.example.demo.events.OrderCreatedPayload;
 import com.example.demo.events.domain.BaseDomainEvent;
 import com.example.demo.events.publisher.EventPublishingService;
+import com.example.demo.events.publisher.PublishResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 @RestController
 @RequestMapping("/orders")
 public class DemoController {
 
     private final EventPublishingService eventPublishingService;
+    private final int bulkMaxCount;
+    private final int bulkMaxConcurrency;
 
-    public DemoController(EventPublishingService eventPublishingService) {
+    public DemoController(EventPublishingService eventPublishingService,
+                          @Value("${app.demo.bulk.max-count:10000}") int bulkMaxCount,
+                          @Value("${app.demo.bulk.max-concurrency:256}") int bulkMaxConcurrency) {
         this.eventPublishingService = eventPublishingService;
+        this.bulkMaxCount = bulkMaxCount;
+        this.bulkMaxConcurrency = bulkMaxConcurrency;
     }
 
     @PostMapping
     public String createOrder(@RequestParam String userId,
                               @RequestParam BigDecimal amount) {
+        var event = orderCreated(userId, amount);
+
+        // 发布事件到本地和Kafka
+        eventPublishingService.publishEvent(event);
+        return "Order created: " + event.getPayload().orderId();
+    }
+
+    /**
+     * 异步创建订单：返回 future，请求线程不等待 Broker 确认，确认后再写回带分区与位点的响应
+     */
+    @PostMapping("/async")
+    public CompletableFuture<PublishResult> createOrderAsync(@RequestParam String userId,
+                                                             @RequestParam BigDecimal amount) {
+        return eventPublishingService.publishAsync(orderCreated(userId, amount));
+    }
+
+    /**
+     * 批量创建订单：以流的形式发布，未完成的发布数不超过 maxConcurrency。
+     * 所有结果在响应前都保存在内存中，count 与 maxConcurrency 超出配置上限时返回 400
+     */
+    @PostMapping("/bulk")
+    public CompletableFuture<List<PublishResult>> createOrders(@RequestParam String userId,
+                                                               @RequestParam BigDecimal amount,
+                                                               @RequestParam(defaultValue = "100") int count,
+                                                               @RequestParam(defaultValue = "64") int maxConcurrency) {
+        if (count < 0 || count > bulkMaxCount) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "count must be between 0 and " + bulkMaxCount + ": " + count);
+        }
+        if (maxConcurrency <= 0 || maxConcurrency > bulkMaxConcurrency) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "maxConcurrency must be between 1 and " + bulkMaxConcurrency + ": " + maxConcurrency);
+        }
+        return eventPublishingService.publishAll(
+                IntStream.range(0, count).mapToObj(i -> orderCreated(userId, amount)), maxConcurrency);
+    }
+
+    private static BaseDomainEvent<OrderCreatedPayload> orderCreated(String userId, BigDecimal amount) {
         String orderId = UUID.randomUUID().toString();
 
         // 构建自定义业务负载
         OrderCreatedPayload payload = new OrderCreatedPayload(orderId, userId, amount);
 
         // attributes 可装入任意扩展信息（如渠道、IP、灰度标识等）
-        var event = BaseDomainEvent.builder().type("OrderCreated")
+        return BaseDomainEvent.<OrderCreatedPayload>builder().type("OrderCreated")
                 .correlationId(UUID.randomUUID().toString())
                 .attributes(Map.of(
                         "channel", "APP",
@@ -40,9 +91,5 @@ public class DemoController {
                 ))
                 .payload(payload)
                 .build();
-
-        // 发布事件到本地和Kafka
-        eventPublishingService.publishEvent(event);
-        return "Order created: " + orderId;
     }
 }
@@ -0,0 +1,32 @@
+package com.example.demo.web;
+
+import com.example.demo.events.projection.OrderStatsProjection;
+import com.example.demo.events.projection.OrderStatsProjection.OrderStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 投影查询接口，直接读取内存状态
+ */
+@RestController
+@RequestMapping("/projections")
+@ConditionalOnProperty(prefix = "app.projections", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProjectionController {
+
+    private final OrderStatsProjection orderStatsProjection;
+
+    public ProjectionController(OrderStatsProjection orderStatsProjection) {
+        this.orderStatsProjection = orderStatsProjection;
+    }
+
+    /**
+     * 某个用户的订单数与订单总额
+     */
+    @GetMapping("/order-stats/{userId}")
+    public OrderStats orderStats(@PathVariable String userId) {
+        return orderStatsProjection.statsOf(userId);
+    }
+}
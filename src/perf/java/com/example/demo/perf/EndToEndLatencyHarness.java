@@ -0,0 +1,226 @@
+package com.example.demo.perf;
+
+import com.example.demo.ApplicationStarter;
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.publisher.EventPublishingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 端到端压测：进程内启动单节点 KRaft Broker 与完整应用，按固定速率经 {@link EventPublishingService} 发布
+ * OrderCreated 事件（与 DemoController 相同的路径），事件经 Kafka 回到 KafkaEventInboundBridge，
+ * 再分发给 EnhancedEventListeners 与 {@link LatencyRecorder}。
+ * <p>
+ * 参数（系统属性）：
+ * <ul>
+ *     <li>{@code perf.rate}：目标发送速率（事件/秒）；</li>
+ *     <li>{@code perf.duration} / {@code perf.warmup}：计量时长与预热时长；</li>
+ *     <li>{@code perf.payload-mix}：事件大小分布，{@code 字节数:权重} 逗号分隔，超出订单字段的部分以扩展属性填充；</li>
+ *     <li>{@code perf.partitions}：topic 分区数；</li>
+ *     <li>{@code perf.report}：JSON 报告路径。</li>
+ * </ul>
+ * 报告包含发送与消费吞吐、延迟分位数（微秒）与丢失数，便于逐次比较。
+ */
+public final class EndToEndLatencyHarness {
+
+    private static final String TOPIC = "perf-order-events";
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    // 不含填充属性时单个事件的大致编码大小
+    private static final int BASE_EVENT_BYTES = 320;
+
+    private EndToEndLatencyHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, settings.partitions(), TOPIC);
+        broker.afterPropertiesSet();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApplicationStarter.class, LatencyRecorder.class)
+                .run("--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                        "--app.topics.order-events=" + TOPIC,
+                        "--spring.kafka.consumer.group-id=perf-harness",
+                        "--spring.kafka.consumer.auto-offset-reset=earliest",
+                        "--server.port=0",
+                        // 延迟以本实例经 Kafka 收回自己发出的事件计量，需关闭自消费跳过
+                        "--app.consumer.skip-self-origin=false",
+                        // 示例监听器逐条打印 INFO 日志，压测时关闭，避免日志 I/O 主导结果
+                        "--logging.level.com.example.demo.events.consumer.EnhancedEventListeners=WARN")) {
+            for (MessageListenerContainer container : context.getBean(KafkaListenerEndpointRegistry.class).getListenerContainers()) {
+                ContainerTestUtils.waitForAssignment(container, settings.partitions());
+            }
+            Map<String, Object> report = run(settings, context.getBean(EventPublishingService.class),
+                    context.getBean(LatencyRecorder.class));
+            ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            Path reportPath = Path.of(settings.report());
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            objectMapper.writeValue(reportPath.toFile(), report);
+            System.out.println(objectMapper.writeValueAsString(report));
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static Map<String, Object> run(Settings settings, EventPublishingService publishingService,
+                                           LatencyRecorder recorder) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(42);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureStart = start + settings.warmup().toNanos();
+        long end = measureStart + settings.duration().toNanos();
+        long next = start;
+        long sent = 0;
+        long sentMeasured = 0;
+        boolean measuring = false;
+
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            if (!measuring && now >= measureStart) {
+                recorder.start(TimeUnit.NANOSECONDS.toMicros(intervalNanos));
+                measuring = true;
+            }
+            publishingService.publishEvent(orderCreated(settings.payloadMix().pick(random), measuring));
+            sent++;
+            if (measuring) {
+                sentMeasured++;
+            }
+            next += intervalNanos;
+        }
+        long sendEnd = System.nanoTime();
+
+        // 等待在途事件送达
+        long drainDeadline = sendEnd + DRAIN_TIMEOUT.toNanos();
+        while (recorder.received() < sent && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+
+        Histogram histogram = recorder.histogram();
+        double measuredSeconds = (sendEnd - measureStart) / 1e9;
+        long lastReceived = recorder.lastReceivedNanos();
+        double consumeSeconds = ((lastReceived > measureStart) ? lastReceived - measureStart : sendEnd - measureStart) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("settings", settings.describe());
+        report.put("sent", sentMeasured);
+        report.put("received", recorder.receivedMeasured());
+        report.put("lost", sentMeasured - recorder.receivedMeasured());
+        report.put("sendThroughput", Math.round(sentMeasured / measuredSeconds));
+        report.put("consumeThroughput", Math.round(recorder.receivedMeasured() / consumeSeconds));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("unit", "us");
+        latency.put("count", histogram.getTotalCount());
+        latency.put("mean", Math.round(histogram.getMean()));
+        latency.put("p50", histogram.getValueAtPercentile(50));
+        latency.put("p90", histogram.getValueAtPercentile(90));
+        latency.put("p99", histogram.getValueAtPercentile(99));
+        latency.put("p999", histogram.getValueAtPercentile(99.9));
+        latency.put("max", histogram.getMaxValue());
+        report.put("latency", latency);
+        return report;
+    }
+
+    private static BaseDomainEvent<OrderCreatedPayload> orderCreated(int targetBytes, boolean measured) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("channel", "APP");
+        attributes.put("ip", "192.168.0.1");
+        attributes.put("featureFlag", true);
+        attributes.put(LatencyRecorder.MEASURED, measured);
+        int padding = targetBytes - BASE_EVENT_BYTES;
+        if (padding > 0) {
+            attributes.put("padding", "x".repeat(padding));
+        }
+        return BaseDomainEvent.<OrderCreatedPayload>builder()
+                .type("OrderCreated")
+                .correlationId(UUID.randomUUID().toString())
+                .attributes(attributes)
+                .payload(new OrderCreatedPayload(UUID.randomUUID().toString(), "perf-user", new BigDecimal("1999.90")))
+                .build();
+    }
+
+    /**
+     * 压测参数
+     */
+    private record Settings(int rate, Duration duration, Duration warmup, PayloadMix payloadMix, int partitions,
+                            String report) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("perf.rate", 2000),
+                    DurationStyle.detectAndParse(System.getProperty("perf.duration", "30s")),
+                    DurationStyle.detectAndParse(System.getProperty("perf.warmup", "5s")),
+                    PayloadMix.parse(System.getProperty("perf.payload-mix", "256:70,1024:25,8192:5")),
+                    Integer.getInteger("perf.partitions", 3),
+                    System.getProperty("perf.report", "target/perf-report.json"));
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("rate", rate);
+            settings.put("duration", duration.toString());
+            settings.put("warmup", warmup.toString());
+            settings.put("payloadMix", payloadMix.spec());
+            settings.put("partitions", partitions);
+            return settings;
+        }
+    }
+
+    /**
+     * 按权重抽取事件大小
+     */
+    private record PayloadMix(String spec, int[] sizes, int[] cumulativeWeights) {
+
+        static PayloadMix parse(String spec) {
+            List<int[]> entries = new ArrayList<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split(":");
+                entries.add(new int[]{Integer.parseInt(parts[0]), (parts.length > 1) ? Integer.parseInt(parts[1]) : 1});
+            }
+            int[] sizes = new int[entries.size()];
+            int[] cumulative = new int[entries.size()];
+            int total = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                sizes[i] = entries.get(i)[0];
+                total += entries.get(i)[1];
+                cumulative[i] = total;
+            }
+            return new PayloadMix(spec, sizes, cumulative);
+        }
+
+        int pick(SplittableRandom random) {
+            int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (r < cumulativeWeights[i]) {
+                    return sizes[i];
+                }
+            }
+            return sizes[sizes.length - 1];
+        }
+    }
+}
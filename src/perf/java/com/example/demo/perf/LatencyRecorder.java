@@ -0,0 +1,79 @@
+package com.example.demo.perf;
+
+import com.example.demo.events.OrderCreatedPayload;
+import com.example.demo.events.domain.BaseDomainEvent;
+import com.example.demo.events.routing.DomainEventListener;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测用监听器：记录经 Kafka 往返后送达的 OrderCreated 事件的端到端延迟（送达时间 - occurredAt，微秒）。
+ * <p>
+ * 发布时本地分发在发送到 Kafka 之前同步完成，因此同一事件 ID 第一次送达为本地分发，第二次为经 Kafka 往返。
+ * 只统计带 {@value #MEASURED} 属性的事件，预热阶段发出的事件不计入。
+ */
+public class LatencyRecorder {
+
+    static final String MEASURED = "perf.measured";
+
+    private final Set<String> dispatchedLocally = ConcurrentHashMap.newKeySet();
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder received = new LongAdder();
+    private final LongAdder receivedMeasured = new LongAdder();
+    private volatile long expectedIntervalMicros;
+    private volatile long lastReceivedNanos;
+
+    @DomainEventListener(types = "OrderCreated")
+    public void onOrderCreated(BaseDomainEvent<OrderCreatedPayload> event) {
+        if (dispatchedLocally.add(event.getId())) {
+            return;
+        }
+        dispatchedLocally.remove(event.getId());
+        received.increment();
+        Map<String, Object> attributes = event.getAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(MEASURED))) {
+            return;
+        }
+        long latencyMicros = Math.max(0, ChronoUnit.MICROS.between(event.getOccurredAt(), Instant.now()));
+        // 按发送间隔补齐协调遗漏：送达被阻塞期间本应发出的请求也计入
+        recorder.recordValueWithExpectedInterval(latencyMicros, expectedIntervalMicros);
+        receivedMeasured.increment();
+        lastReceivedNanos = System.nanoTime();
+    }
+
+    /**
+     * 开始计量：丢弃此前的记录
+     *
+     * @param expectedIntervalMicros 目标发送间隔
+     */
+    void start(long expectedIntervalMicros) {
+        this.expectedIntervalMicros = expectedIntervalMicros;
+        recorder.reset();
+    }
+
+    /**
+     * @return 自 {@link #start} 以来的延迟直方图
+     */
+    Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    long received() {
+        return received.sum();
+    }
+
+    long receivedMeasured() {
+        return receivedMeasured.sum();
+    }
+
+    long lastReceivedNanos() {
+        return lastReceivedNanos;
+    }
+}
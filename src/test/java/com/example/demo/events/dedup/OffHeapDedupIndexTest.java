@@ -0,0 +1,145 @@
+package com.example.demo.events.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapDedupIndexTest {
+
+    // 单段 16 个槽位，负载上限 12
+    private static final int SLOTS = 16;
+    private static final long MEMORY = SLOTS * 24L;
+    private static final long RETENTION = 1_000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private long nextLsb = 1;
+
+    @Test
+    void rejectsDuplicateWithinRetention() {
+        OffHeapDedupIndex index = new OffHeapDedupIndex(MEMORY, 1, RETENTION);
+        assertEquals(SLOTS, index.capacity());
+
+        assertTrue(index.markIfAbsent(7, 1, T0 + 100));
+        assertFalse(index.markIfAbsent(7, 1, T0 + 200));
+        assertTrue(index.markIfAbsent(7, 2, T0 + 200));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void reusesSlotOfExpiredEntry() {
+        OffHeapDedupIndex index = new OffHeapDedupIndex(MEMORY, 1, RETENTION);
+
+        assertTrue(index.markIfAbsent(7, 1, T0 + 1_000));
+        assertFalse(index.markIfAbsent(7, 1, T0 + 1_999));
+        assertTrue(index.markIfAbsent(7, 1, T0 + 2_001));
+        assertEquals(1, index.size());
+        assertFalse(index.markIfAbsent(7, 1, T0 + 2_500));
+    }
+
+    @Test
+    void forgetInMiddleOfProbeChainKeepsLaterEntriesFindable() {
+        OffHeapDedupIndex index = new OffHeapDedupIndex(MEMORY, 1, RETENTION);
+        long first = lsbWithHomeSlot(3);
+        long middle = lsbWithHomeSlot(3);
+        long last = lsbWithHomeSlot(3);
+        assertTrue(index.markIfAbsent(0, first, T0 + 100));
+        assertTrue(index.markIfAbsent(0, middle, T0 + 100));
+        assertTrue(index.markIfAbsent(0, last, T0 + 100));
+
+        index.forget(0, middle);
+
+        assertFalse(index.markIfAbsent(0, first, T0 + 200));
+        assertFalse(index.markIfAbsent(0, last, T0 + 200));
+        // 撤销后的槽位被重新占用，不新增槽位
+        assertTrue(index.markIfAbsent(0, middle, T0 + 200));
+        assertEquals(3, index.size());
+        assertFalse(index.markIfAbsent(0, middle, T0 + 300));
+    }
+
+    @Test
+    void forgetOfUnknownIdIsNoOp() {
+        OffHeapDedupIndex index = new OffHeapDedupIndex(MEMORY, 1, RETENTION);
+        long marked = lsbWithHomeSlot(5);
+        assertTrue(index.markIfAbsent(0, marked, T0 + 100));
+
+        index.forget(0, lsbWithHomeSlot(5));
+        index.forget(0, lsbWithHomeSlot(9));
+
+        assertFalse(index.markIfAbsent(0, marked, T0 + 200));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuildDropsExpiredEntries() {
+        OffHeapDedupIndex index = new OffHeapDedupIndex(MEMORY, 1, RETENTION);
+        List<Long> expired = fillHomeSlots(index, T0 + 1);
+        assertEquals(12, index.size());
+
+        // 新 ID 的起始槽位为空，插入前触发重建
+        long fresh = lsbWithHomeSlot(12);
+        assertTrue(index.markIfAbsent(0, fresh, T0 + 5_000));
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.evictions());
+        assertFalse(index.markIfAbsent(0, fresh, T0 + 5_001));
+        for (long lsb : expired) {
+            assertTrue(index.markIfAbsent(0, lsb, T0 + 5_001));
+        }
+    }
+
+    @Test
+    void rebuildEvictsOlderHalfWhenEntriesAreStillLive() {
+        // 保留期长于当前时间：重建时过期下界为负，空槽不能被当成未过期条目
+        OffHeapDedupIndex index = new OffHeapDedupIndex(MEMORY, 1, Long.MAX_VALUE / 2);
+        // 时间 T0+1..T0+12；重建时刻 T0+13，按中点 T0+7 淘汰不晚于它的 7 个条目
+        List<Long> live = new ArrayList<>();
+        for (int slot = 0; slot < 12; slot++) {
+            long lsb = lsbWithHomeSlot(slot);
+            assertTrue(index.markIfAbsent(0, lsb, T0 + slot + 1));
+            live.add(lsb);
+        }
+
+        long fresh = lsbWithHomeSlot(12);
+        assertTrue(index.markIfAbsent(0, fresh, T0 + 13));
+
+        assertEquals(7, index.evictions());
+        assertEquals(6, index.size());
+        assertFalse(index.markIfAbsent(0, fresh, T0 + 14));
+        for (int i = 7; i < 12; i++) {
+            assertFalse(index.markIfAbsent(0, live.get(i), T0 + 14));
+        }
+        for (int i = 0; i < 7; i++) {
+            assertTrue(index.markIfAbsent(0, live.get(i), T0 + 14));
+        }
+    }
+
+    /**
+     * 让前 12 个槽位各自成为一个 ID 的起始槽位，全部以同一时间标记
+     */
+    private List<Long> fillHomeSlots(OffHeapDedupIndex index, long now) {
+        List<Long> ids = new ArrayList<>();
+        for (int slot = 0; slot < 12; slot++) {
+            long lsb = lsbWithHomeSlot(slot);
+            assertTrue(index.markIfAbsent(0, lsb, now));
+            ids.add(lsb);
+        }
+        return ids;
+    }
+
+    /**
+     * 找一个未用过的低 64 位，使 (0, lsb) 在单段 16 槽的表里落到指定的起始槽位
+     */
+    private long lsbWithHomeSlot(int slot) {
+        while (true) {
+            long lsb = nextLsb++;
+            if (((int) OffHeapDedupIndex.mix(0, lsb) & (SLOTS - 1)) == slot) {
+                return lsb;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.events.journal;
+
+import com.example.demo.events.domain.DomainEventMessage;
+import com.example.demo.events.journal.EventJournal.Direction;
+import com.example.demo.events.journal.EventJournal.JournalEntry;
+import com.example.demo.events.transport.BinaryDomainEventCodec;
+import com.example.demo.events.transport.EventJson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 1;
+
+    private final BinaryDomainEventCodec codec = new BinaryDomainEventCodec(EventJson.mapper());
+    // 所有测试消息编码后长度相同，帧在段内的位置可以直接算出
+    private final int frameBytes = HEADER_BYTES + codec.encode(message(0)).length;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAppendedMessagesWithSequenceAndDirection() throws IOException {
+        try (EventJournal journal = open(64 * 1024, 4096, 4)) {
+            assertEquals(0, journal.append(message(0), Direction.PUBLISHED));
+            journal.appendAll(List.of(message(1), message(2)), Direction.CONSUMED);
+            assertEquals(3, journal.append(message(3), Direction.FORWARDED));
+
+            List<JournalEntry> entries = replay(journal, 0, Long.MAX_VALUE);
+            assertSequences(entries, 0, 4);
+            assertEquals(Direction.PUBLISHED, entries.get(0).direction());
+            assertEquals(Direction.CONSUMED, entries.get(2).direction());
+            assertEquals(Direction.FORWARDED, entries.get(3).direction());
+            assertEquals(message(2).id(), entries.get(2).message().id());
+            assertEquals(4, journal.nextSequence());
+        }
+    }
+
+    @Test
+    void replaysRangeFromMiddleOfSegmentThroughSparseIndex() throws IOException {
+        // 每隔约三帧一个索引项，起点落在两个索引项之间
+        try (EventJournal journal = open(64 * 1024, frameBytes * 3, 4)) {
+            appendMessages(journal, 50);
+
+            assertSequences(replay(journal, 17, 23), 17, 6);
+            assertSequences(replay(journal, 18, 19), 18, 1);
+            assertSequences(replay(journal, 45, Long.MAX_VALUE), 45, 5);
+            assertTrue(replay(journal, 50, Long.MAX_VALUE).isEmpty());
+        }
+    }
+
+    @Test
+    void locatesFirstSequenceAtOrAfterTime() throws Exception {
+        try (EventJournal journal = open(64 * 1024, frameBytes * 2, 4)) {
+            appendMessages(journal, 10);
+            Thread.sleep(5);
+            Instant boundary = Instant.now();
+            Thread.sleep(5);
+            appendMessages(journal, 10);
+
+            assertEquals(10, journal.sequenceAt(boundary));
+            assertEquals(0, journal.sequenceAt(Instant.EPOCH));
+            assertEquals(journal.nextSequence(), journal.sequenceAt(Instant.now().plusSeconds(60)));
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndDropsOldestBeyondRetention() throws IOException {
+        // 每段放三帧，最多保留三段
+        try (EventJournal journal = open(frameBytes * 3 + 8, frameBytes, 3)) {
+            appendMessages(journal, 20);
+
+            assertEquals(20, journal.nextSequence());
+            assertEquals(12, journal.firstSequence());
+            assertFalse(Files.exists(segment(0)));
+            assertFalse(Files.exists(segment(9)));
+            assertTrue(Files.exists(segment(12)));
+            assertTrue(Files.exists(segment(18)));
+
+            // 起点早于最旧记录时从最旧记录开始
+            assertSequences(replay(journal, 0, Long.MAX_VALUE), 12, 8);
+            assertSequences(replay(journal, 13, 17), 13, 4);
+        }
+    }
+
+    @Test
+    void continuesSequenceAfterReopen() throws IOException {
+        try (EventJournal journal = open(frameBytes * 3 + 8, frameBytes, 10)) {
+            appendMessages(journal, 7);
+        }
+        try (EventJournal journal = open(frameBytes * 3 + 8, frameBytes, 10)) {
+            assertEquals(0, journal.firstSequence());
+            assertEquals(7, journal.nextSequence());
+            assertEquals(7, journal.append(message(7), Direction.PUBLISHED));
+            assertSequences(replay(journal, 0, Long.MAX_VALUE), 0, 8);
+            assertSequences(replay(journal, 4, Long.MAX_VALUE), 4, 4);
+        }
+    }
+
+    @Test
+    void truncatesCorruptTailOnReopen() throws IOException {
+        try (EventJournal journal = open(64 * 1024, frameBytes, 4)) {
+            appendMessages(journal, 5);
+        }
+        corruptBody(segment(0), 3L * frameBytes);
+
+        try (EventJournal journal = open(64 * 1024, frameBytes, 4)) {
+            assertEquals(3, journal.nextSequence());
+            assertSequences(replay(journal, 0, Long.MAX_VALUE), 0, 3);
+
+            // 新记录覆盖被截掉的帧，不会把残留的旧帧接到后面
+            assertEquals(3, journal.append(message(3), Direction.CONSUMED));
+            assertSequences(replay(journal, 0, Long.MAX_VALUE), 0, 4);
+        }
+    }
+
+    @Test
+    void replaySkipsRestOfSegmentAfterCorruptFrame() throws IOException {
+        try (EventJournal journal = open(frameBytes * 3 + 8, frameBytes, 10)) {
+            appendMessages(journal, 9);
+            // 映射与文件共享页缓存，直接改文件即可让回放读到损坏的帧
+            corruptBody(segment(3), frameBytes);
+
+            List<JournalEntry> entries = replay(journal, 0, Long.MAX_VALUE);
+            List<Long> sequences = entries.stream().map(JournalEntry::sequence).toList();
+            assertEquals(List.of(0L, 1L, 2L, 3L, 6L, 7L, 8L), sequences);
+        }
+    }
+
+    private EventJournal open(int segmentBytes, int indexInterval, int maxSegments) throws IOException {
+        return new EventJournal(dir, segmentBytes, indexInterval, maxSegments, codec);
+    }
+
+    private Path segment(long baseSequence) {
+        return dir.resolve(String.format("%020d.journal", baseSequence));
+    }
+
+    private static void appendMessages(EventJournal journal, int count) {
+        long first = journal.nextSequence();
+        for (int i = 0; i < count; i++) {
+            journal.append(message((int) (first + i)), Direction.PUBLISHED);
+        }
+    }
+
+    private static DomainEventMessage message(int i) {
+        return new DomainEventMessage(new UUID(0, i).toString(), "OrderCreated", "test.order.created.v1",
+                Instant.ofEpochSecond(1_700_000_000L), null, Map.of(), Map.of("n", String.format("%06d", i)));
+    }
+
+    private static List<JournalEntry> replay(EventJournal journal, long from, long to) {
+        List<JournalEntry> entries = new ArrayList<>();
+        long count = journal.replay(from, to, entries::add);
+        assertEquals(entries.size(), count);
+        return entries;
+    }
+
+    private static void assertSequences(List<JournalEntry> entries, long first, int count) {
+        assertEquals(count, entries.size());
+        for (int i = 0; i < count; i++) {
+            JournalEntry entry = entries.get(i);
+            assertEquals(first + i, entry.sequence());
+            assertEquals(new UUID(0, first + i).toString(), entry.message().id());
+        }
+    }
+
+    private static void corruptBody(Path segment, long frameOffset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long position = frameOffset + HEADER_BYTES;
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x5A)).rewind();
+            channel.write(b, position);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.events.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxLogTest {
+
+    private static final int HEADER_BYTES = 8;
+    // 20 字节的记录 + 8 字节帧头 = 28 字节；64 字节的段恰好放下两帧
+    private static final int RECORD_BYTES = 20;
+    private static final int FRAME_BYTES = HEADER_BYTES + RECORD_BYTES;
+    private static final long SEGMENT_BYTES = 64;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackAppendedRecordsInOrder() throws IOException {
+        try (OutboxLog log = open()) {
+            log.append(record(0));
+            log.appendAll(List.of(record(1), record(2)));
+
+            OutboxLog.OutboxBatch batch = log.read(OutboxPosition.START, 10);
+            assertRecords(batch.records(), 0, 3);
+            assertEquals(log.durablePosition(), batch.next());
+            assertTrue(log.read(batch.next(), 10).records().isEmpty());
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndReadsAcrossThem() throws IOException {
+        try (OutboxLog log = open()) {
+            for (int i = 0; i < 5; i++) {
+                log.append(record(i));
+            }
+            assertEquals(new OutboxPosition(2, FRAME_BYTES), log.durablePosition());
+            assertTrue(Files.exists(segment(0)));
+            assertTrue(Files.exists(segment(1)));
+            assertEquals(2L * FRAME_BYTES, Files.size(segment(0)));
+
+            OutboxLog.OutboxBatch first = log.read(OutboxPosition.START, 3);
+            assertRecords(first.records(), 0, 3);
+            assertEquals(new OutboxPosition(1, FRAME_BYTES), first.next());
+
+            OutboxLog.OutboxBatch rest = log.read(first.next(), 10);
+            assertRecords(rest.records(), 3, 2);
+            assertEquals(log.durablePosition(), rest.next());
+        }
+    }
+
+    @Test
+    void commitDeletesOlderSegmentsAndSurvivesReopen() throws IOException {
+        OutboxPosition committed;
+        try (OutboxLog log = open()) {
+            for (int i = 0; i < 5; i++) {
+                log.append(record(i));
+            }
+            committed = log.read(OutboxPosition.START, 4).next();
+            assertEquals(new OutboxPosition(1, 2L * FRAME_BYTES), committed);
+            log.commit(committed);
+
+            assertEquals(committed, log.checkpoint());
+            assertFalse(Files.exists(segment(0)));
+            assertTrue(Files.exists(segment(1)));
+        }
+
+        try (OutboxLog log = open()) {
+            assertEquals(committed, log.checkpoint());
+            assertEquals(new OutboxPosition(2, FRAME_BYTES), log.durablePosition());
+
+            // 从检查点继续读，跨过已读完的段
+            OutboxLog.OutboxBatch batch = log.read(log.checkpoint(), 10);
+            assertRecords(batch.records(), 4, 1);
+            log.commit(batch.next());
+            assertFalse(Files.exists(segment(1)));
+            assertTrue(Files.exists(segment(2)));
+        }
+    }
+
+    @Test
+    void truncatesTornTailOnReopen() throws IOException {
+        try (OutboxLog log = open()) {
+            log.append(record(0));
+            log.append(record(1));
+        }
+        // 模拟崩溃时只写出一半的帧：帧头声明的长度超出文件末尾
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(HEADER_BYTES + 3).putInt(RECORD_BYTES).putInt(0).flip());
+        }
+
+        try (OutboxLog log = open()) {
+            assertEquals(new OutboxPosition(0, 2L * FRAME_BYTES), log.durablePosition());
+            assertEquals(2L * FRAME_BYTES, Files.size(segment(0)));
+
+            // 新的记录接在最后一个完整帧之后
+            log.append(record(2));
+            assertRecords(log.read(OutboxPosition.START, 10).records(), 0, 3);
+        }
+    }
+
+    @Test
+    void truncatesTailFrameWithChecksumMismatchOnReopen() throws IOException {
+        try (OutboxLog log = open()) {
+            log.append(record(0));
+            log.append(record(1));
+        }
+        corruptBody(segment(0), FRAME_BYTES);
+
+        try (OutboxLog log = open()) {
+            assertEquals(new OutboxPosition(0, FRAME_BYTES), log.durablePosition());
+            assertRecords(log.read(OutboxPosition.START, 10).records(), 0, 1);
+        }
+    }
+
+    @Test
+    void readFailsOnChecksumMismatchInSealedSegment() throws IOException {
+        try (OutboxLog log = open()) {
+            for (int i = 0; i < 3; i++) {
+                log.append(record(i));
+            }
+        }
+        // 打开时只校验最后一段，已滚动的段在读取时才发现损坏
+        corruptBody(segment(0), 0);
+
+        try (OutboxLog log = open()) {
+            assertEquals(new OutboxPosition(1, FRAME_BYTES), log.durablePosition());
+            IOException e = assertThrows(IOException.class, () -> log.read(OutboxPosition.START, 10));
+            assertTrue(e.getMessage().contains("Corrupt outbox frame"));
+        }
+    }
+
+    private OutboxLog open() throws IOException {
+        return new OutboxLog(dir, SEGMENT_BYTES, true, 16);
+    }
+
+    private Path segment(long segment) {
+        return dir.resolve(String.format("%020d.log", segment));
+    }
+
+    private static byte[] record(int i) {
+        byte[] bytes = String.format("record-%013d", i).getBytes(StandardCharsets.US_ASCII);
+        assertEquals(RECORD_BYTES, bytes.length);
+        return bytes;
+    }
+
+    private static void assertRecords(List<byte[]> records, int first, int count) {
+        assertEquals(count, records.size());
+        for (int i = 0; i < count; i++) {
+            assertArrayEquals(record(first + i), records.get(i));
+        }
+    }
+
+    private static void corruptBody(Path segment, long frameOffset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long position = frameOffset + HEADER_BYTES;
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x5A)).rewind();
+            channel.write(b, position);
+        }
+    }
+}